@@ -0,0 +1,38 @@
+package com.dopaminelite.dl_file_storage_service.benchmark;
+
+import com.dopaminelite.dl_file_storage_service.DlFileStorageServiceApplication;
+import com.dopaminelite.dl_file_storage_service.storage.StorageProvider;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Boots the application without a web server against the embedded H2 database configured in
+ * {@code application-jmh.properties}, with {@link InMemoryStorageProvider} as the storage backend.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(DlFileStorageServiceApplication.class, InMemoryStorageConfig.class)
+                .web(WebApplicationType.NONE)
+                .profiles("jmh")
+                .properties(properties)
+                .run();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class InMemoryStorageConfig {
+
+        @Bean
+        @Primary
+        StorageProvider inMemoryStorageProvider() {
+            return new InMemoryStorageProvider();
+        }
+    }
+}
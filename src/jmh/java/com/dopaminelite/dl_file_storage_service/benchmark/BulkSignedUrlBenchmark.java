@@ -0,0 +1,71 @@
+package com.dopaminelite.dl_file_storage_service.benchmark;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+import com.dopaminelite.dl_file_storage_service.dto.BulkFileSignedUrlRequestItem;
+import com.dopaminelite.dl_file_storage_service.dto.BulkFileSignedUrlResponse;
+import com.dopaminelite.dl_file_storage_service.dto.FileUploadResponse;
+import com.dopaminelite.dl_file_storage_service.service.FileStorageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code bulkGenerateSignedUrls} over files seeded into the embedded database. With the caches
+ * disabled every invocation hits the database and the signer; enabled measures the warm path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BulkSignedUrlBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int items;
+
+    @Param({"true", "false"})
+    public boolean cachesEnabled;
+
+    private ConfigurableApplicationContext context;
+    private FileStorageService fileStorageService;
+    private List<BulkFileSignedUrlRequestItem> requestItems;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "storage.signed-url.cache.enabled=" + cachesEnabled,
+                "storage.metadata-cache.enabled=" + cachesEnabled);
+        fileStorageService = context.getBean(FileStorageService.class);
+
+        UUID userId = UUID.randomUUID();
+        requestItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            MockMultipartFile file = new MockMultipartFile("files", "attachment-" + i + ".png", "image/png", new byte[]{(byte) i});
+            FileUploadResponse uploaded = fileStorageService.uploadFile(file, userId, FileContextType.ISSUE_ATTACHMENT, "ISSUE-1", false);
+            SignedUrlIntent intent = i % 2 == 0 ? SignedUrlIntent.VIEW : SignedUrlIntent.DOWNLOAD;
+            requestItems.add(new BulkFileSignedUrlRequestItem(uploaded.getFile().getId(), intent));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BulkFileSignedUrlResponse bulkGenerateSignedUrls() {
+        return fileStorageService.bulkGenerateSignedUrls(requestItems, 900, false);
+    }
+}
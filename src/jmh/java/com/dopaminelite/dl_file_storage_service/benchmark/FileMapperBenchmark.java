@@ -0,0 +1,50 @@
+package com.dopaminelite.dl_file_storage_service.benchmark;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.dto.StoredFileDto;
+import com.dopaminelite.dl_file_storage_service.entity.StoredFile;
+import com.dopaminelite.dl_file_storage_service.mapper.FileMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FileMapperBenchmark {
+
+    private StoredFile entity;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.now();
+        entity = StoredFile.builder()
+                .id(UUID.randomUUID())
+                .originalFileName("receipt.pdf")
+                .storedFileName(UUID.randomUUID() + "_receipt.pdf")
+                .mimeType("application/pdf")
+                .sizeBytes(245_760)
+                .sha256("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
+                .bucket("payment_submission")
+                .storagePath("payment_submission/receipt.pdf")
+                .contextType(FileContextType.PAYMENT_SUBMISSION)
+                .contextRefId("PAY-1001")
+                .createdByUserId(UUID.randomUUID())
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    @Benchmark
+    public StoredFileDto toDto() {
+        return FileMapper.toDto(entity);
+    }
+}
@@ -0,0 +1,56 @@
+package com.dopaminelite.dl_file_storage_service.benchmark;
+
+import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+import com.dopaminelite.dl_file_storage_service.storage.StorageProvider;
+import com.dopaminelite.dl_file_storage_service.storage.StoredObjectMetadata;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Storage stand-in for benchmarks: drains uploaded content and records only its size, so the
+ * measured cost is the service's own work rather than network or disk I/O.
+ */
+public class InMemoryStorageProvider implements StorageProvider {
+
+    private final Map<String, Long> sizes = new ConcurrentHashMap<>();
+    private final byte[] drainBuffer = new byte[8192];
+
+    @Override
+    public String store(InputStream content, long contentLength, String storedFileName, String bucketPath) throws IOException {
+        String storagePath = resolveStoragePath(storedFileName, bucketPath);
+        long total = 0;
+        int read;
+        // Shared scratch buffer: contents are discarded, so concurrent writers may interleave freely
+        while ((read = content.read(drainBuffer)) != -1) {
+            total += read;
+        }
+        sizes.put(storagePath, total);
+        return storagePath;
+    }
+
+    @Override
+    public String generateSignedUrl(String storagePath, SignedUrlIntent intent, int expiresInSeconds) {
+        return "memory://" + storagePath + "?intent=" + intent + "&expires=" + expiresInSeconds;
+    }
+
+    @Override
+    public void delete(String storagePath) {
+        sizes.remove(storagePath);
+    }
+
+    @Override
+    public InputStream openStream(String storagePath, long offset, long length) {
+        return new ByteArrayInputStream(new byte[(int) Math.min(length, Integer.MAX_VALUE)]);
+    }
+
+    @Override
+    public Optional<StoredObjectMetadata> headObject(String storagePath) {
+        Long size = sizes.get(storagePath);
+        return size == null ? Optional.empty() : Optional.of(new StoredObjectMetadata(size, null, null));
+    }
+}
@@ -0,0 +1,57 @@
+package com.dopaminelite.dl_file_storage_service.benchmark;
+
+import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+import com.dopaminelite.dl_file_storage_service.storage.S3StorageProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Presigning is pure local computation (SigV4 over the request), so no S3 endpoint is needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class S3StorageProviderBenchmark {
+
+    private S3Client s3Client;
+    private S3Presigner s3Presigner;
+    private S3StorageProvider storageProvider;
+
+    @Setup
+    public void setUp() {
+        StaticCredentialsProvider credentials =
+                StaticCredentialsProvider.create(AwsBasicCredentials.create("benchmark", "benchmark"));
+        s3Client = S3Client.builder().region(Region.AP_SOUTH_1).credentialsProvider(credentials).build();
+        s3Presigner = S3Presigner.builder().region(Region.AP_SOUTH_1).credentialsProvider(credentials).build();
+        storageProvider = new S3StorageProvider(s3Client, s3Presigner, "benchmark-bucket");
+    }
+
+    @TearDown
+    public void tearDown() {
+        s3Presigner.close();
+        s3Client.close();
+    }
+
+    @Benchmark
+    public String generateSignedUrlView() {
+        return storageProvider.generateSignedUrl("payment_submission/0b5e4f3c_receipt.pdf", SignedUrlIntent.VIEW, 900);
+    }
+
+    @Benchmark
+    public String generateSignedUrlDownload() {
+        return storageProvider.generateSignedUrl("payment_submission/0b5e4f3c_receipt.pdf", SignedUrlIntent.DOWNLOAD, 900);
+    }
+}
@@ -0,0 +1,59 @@
+package com.dopaminelite.dl_file_storage_service.benchmark;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.dto.FileUploadResponse;
+import com.dopaminelite.dl_file_storage_service.service.FileStorageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@code uploadFile} path (hashing, storage hand-off, insert, signing) at several payload
+ * sizes. Each invocation inserts a new row, as a real upload does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UploadBenchmark {
+
+    @Param({"1024", "262144", "4194304", "33554432"})
+    public int payloadBytes;
+
+    private ConfigurableApplicationContext context;
+    private FileStorageService fileStorageService;
+    private MockMultipartFile file;
+    private UUID userId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        fileStorageService = context.getBean(FileStorageService.class);
+
+        byte[] payload = new byte[payloadBytes];
+        ThreadLocalRandom.current().nextBytes(payload);
+        file = new MockMultipartFile("files", "document.pdf", "application/pdf", payload);
+        userId = UUID.randomUUID();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public FileUploadResponse uploadFile() {
+        return fileStorageService.uploadFile(file, userId, FileContextType.DOCUMENT, "DOC-1", true);
+    }
+}
@@ -1,11 +1,16 @@
 package com.dopaminelite.dl_file_storage_service;
 
+import com.dopaminelite.dl_file_storage_service.config.NativeImageHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableJpaAuditing
+@EnableScheduling
 @SpringBootApplication
+@ImportRuntimeHints(NativeImageHints.class)
 public class DlFileStorageServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,59 @@
+package com.dopaminelite.dl_file_storage_service.cache;
+
+import com.dopaminelite.dl_file_storage_service.dto.StoredFileDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of active file metadata by id. Only found files are cached; misses always
+ * go to the database. Entries are invalidated explicitly on soft delete and otherwise expire after
+ * the configured TTL, which bounds staleness across instances.
+ */
+@Slf4j
+public class FileMetadataCache {
+
+    private final boolean enabled;
+    private final Cache<UUID, StoredFileDto> cache;
+
+    public FileMetadataCache(boolean enabled, long maximumSize, Duration ttl) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        log.info("File metadata cache {} (maximumSize: {}, ttl: {})", enabled ? "enabled" : "disabled", maximumSize, ttl);
+    }
+
+    public Optional<StoredFileDto> get(UUID fileId, Function<UUID, Optional<StoredFileDto>> loader) {
+        if (!enabled) {
+            return loader.apply(fileId);
+        }
+        return Optional.ofNullable(cache.get(fileId, id -> loader.apply(id).orElse(null)));
+    }
+
+    public Optional<StoredFileDto> getIfPresent(UUID fileId) {
+        return enabled ? Optional.ofNullable(cache.getIfPresent(fileId)) : Optional.empty();
+    }
+
+    public void put(StoredFileDto file) {
+        if (enabled) {
+            cache.put(file.getId(), file);
+        }
+    }
+
+    public void invalidate(UUID fileId) {
+        cache.invalidate(fileId);
+    }
+
+    // Exposed for CaffeineCacheMetrics (cache.gets, cache.evictions, ...)
+    public Cache<?, ?> nativeCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,107 @@
+package com.dopaminelite.dl_file_storage_service.cache;
+
+import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.function.IntFunction;
+
+/**
+ * Bounded cache of presigned URLs keyed by (storagePath, intent, expiry bucket).
+ * <p>
+ * Requested lifetimes are rounded down to the configured bucket so that nearby values share an
+ * entry without ever signing a URL that outlives what the caller asked for; lifetimes shorter
+ * than one bucket are kept as requested. An entry is handed out only while at least
+ * {@code minRemainingRatio} of its lifetime is left, so a reused URL may expire sooner than the
+ * requested lifetime (callers must rely on the returned {@code expiresAt}). Returning the same URL
+ * for repeated requests also lets browsers and CDNs cache the object.
+ */
+@Slf4j
+public class SignedUrlCache {
+
+    public record SignedUrl(String url, OffsetDateTime expiresAt) {
+    }
+
+    private record Key(String storagePath, SignedUrlIntent intent, int expiresInSeconds) {
+    }
+
+    private final boolean enabled;
+    private final int expiryBucketSeconds;
+    private final Cache<Key, SignedUrl> cache;
+
+    public SignedUrlCache(boolean enabled, long maximumSize, double minRemainingRatio, int expiryBucketSeconds) {
+        this.enabled = enabled;
+        this.expiryBucketSeconds = Math.max(1, expiryBucketSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ReusableLifetimeExpiry(minRemainingRatio))
+                .recordStats()
+                .build();
+        log.info("Signed URL cache {} (maximumSize: {}, minRemainingRatio: {}, expiryBucketSeconds: {})",
+                enabled ? "enabled" : "disabled", maximumSize, minRemainingRatio, this.expiryBucketSeconds);
+    }
+
+    /**
+     * Returns a cached URL for the given object and intent, or signs a new one with
+     * {@code signer}, which receives the (bucketed) lifetime in seconds.
+     */
+    public SignedUrl get(String storagePath, SignedUrlIntent intent, int expiresInSeconds, IntFunction<String> signer) {
+        if (!enabled) {
+            return sign(expiresInSeconds, signer);
+        }
+        int bucketedSeconds = floorToBucket(expiresInSeconds);
+        return cache.get(new Key(storagePath, intent, bucketedSeconds), key -> sign(key.expiresInSeconds(), signer));
+    }
+
+    public void invalidate(String storagePath) {
+        if (enabled) {
+            cache.asMap().keySet().removeIf(key -> key.storagePath().equals(storagePath));
+        }
+    }
+
+    public Cache<?, ?> nativeCache() {
+        return cache;
+    }
+
+    private SignedUrl sign(int expiresInSeconds, IntFunction<String> signer) {
+        OffsetDateTime expiresAt = OffsetDateTime.now().plusSeconds(expiresInSeconds);
+        return new SignedUrl(signer.apply(expiresInSeconds), expiresAt);
+    }
+
+    private int floorToBucket(int seconds) {
+        if (seconds < expiryBucketSeconds) {
+            return seconds;
+        }
+        return (seconds / expiryBucketSeconds) * expiryBucketSeconds;
+    }
+
+    private static final class ReusableLifetimeExpiry implements Expiry<Key, SignedUrl> {
+
+        private final double minRemainingRatio;
+
+        private ReusableLifetimeExpiry(double minRemainingRatio) {
+            this.minRemainingRatio = minRemainingRatio;
+        }
+
+        @Override
+        public long expireAfterCreate(Key key, SignedUrl value, long currentTime) {
+            Duration remaining = Duration.between(OffsetDateTime.now(), value.expiresAt());
+            long reserveMillis = (long) (key.expiresInSeconds() * 1000L * minRemainingRatio);
+            return Math.max(0, remaining.toNanos() - Duration.ofMillis(reserveMillis).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, SignedUrl value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, SignedUrl value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
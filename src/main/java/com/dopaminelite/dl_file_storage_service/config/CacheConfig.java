@@ -0,0 +1,42 @@
+package com.dopaminelite.dl_file_storage_service.config;
+
+import com.dopaminelite.dl_file_storage_service.cache.FileMetadataCache;
+import com.dopaminelite.dl_file_storage_service.cache.SignedUrlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@RequiredArgsConstructor
+public class CacheConfig {
+
+    private final StorageProperties properties;
+
+    @Bean
+    public FileMetadataCache fileMetadataCache(MeterRegistry meterRegistry) {
+        StorageProperties.MetadataCacheProperties cacheProps = properties.getMetadataCache();
+        FileMetadataCache cache = new FileMetadataCache(
+                cacheProps.isEnabled(),
+                cacheProps.getMaximumSize(),
+                Duration.ofSeconds(cacheProps.getTtlSeconds()));
+        // Hit, miss, load and eviction statistics as cache.* meters tagged cache=file_metadata
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.nativeCache(), "file_metadata");
+        return cache;
+    }
+
+    @Bean
+    public SignedUrlCache signedUrlCache(MeterRegistry meterRegistry) {
+        StorageProperties.SignedUrlCacheProperties cacheProps = properties.getSignedUrl().getCache();
+        SignedUrlCache cache = new SignedUrlCache(
+                cacheProps.isEnabled(),
+                cacheProps.getMaximumSize(),
+                cacheProps.getMinRemainingRatio(),
+                cacheProps.getExpiryBucketSeconds());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.nativeCache(), "signed_url");
+        return cache;
+    }
+}
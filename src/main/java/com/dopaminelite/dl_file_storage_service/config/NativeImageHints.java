@@ -0,0 +1,83 @@
+package com.dopaminelite.dl_file_storage_service.config;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileChangeType;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.dto.FileChangeEventDto;
+import com.dopaminelite.dl_file_storage_service.dto.StoredFileDto;
+import com.dopaminelite.dl_file_storage_service.repository.UsageCounterRepository;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Reachability metadata for the native image (built with {@code -Pnative}) that neither Spring AOT
+ * nor the metadata shipped with the AWS SDK and Hibernate covers.
+ */
+public class NativeImageHints implements RuntimeHintsRegistrar {
+
+    // The SDK reads these lists from the classpath and instantiates every interceptor reflectively
+    private static final List<String> SDK_INTERCEPTOR_RESOURCES = List.of(
+            "software/amazon/awssdk/global/handlers/execution.interceptors",
+            "software/amazon/awssdk/services/s3/execution.interceptors");
+
+    private static final List<String> SDK_RESOURCES = List.of(
+            "software/amazon/awssdk/global/partitions.json");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        ClassLoader loader = classLoader != null ? classLoader : NativeImageHints.class.getClassLoader();
+        SDK_RESOURCES.forEach(hints.resources()::registerPattern);
+        for (String resource : SDK_INTERCEPTOR_RESOURCES) {
+            hints.resources().registerPattern(resource);
+            interceptorClassNames(loader, resource).forEach(className -> hints.reflection()
+                    .registerType(TypeReference.of(className), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS));
+        }
+
+        // Hibernate: enum columns, and the DTO the listing criteria query constructs
+        for (Class<?> enumType : List.of(FileContextType.class, FileChangeType.class)) {
+            hints.reflection().registerType(enumType, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.reflection().registerType(StoredFileDto.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        // Spring Data proxies for the native-query projections
+        for (Class<?> projection : List.of(UsageCounterRepository.Totals.class,
+                UsageCounterRepository.UserUsage.class, UsageCounterRepository.ContextUsage.class)) {
+            hints.proxies().registerJdkProxy(projection, TargetAware.class, SpringProxy.class, DecoratingProxy.class);
+        }
+
+        // Serialized with a plain ObjectMapper by the webhook sink, outside any controller
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), FileChangeEventDto.class);
+    }
+
+    private static List<String> interceptorClassNames(ClassLoader loader, String resource) {
+        try {
+            Enumeration<URL> urls = loader.getResources(resource);
+            List<String> classNames = new ArrayList<>();
+            while (urls.hasMoreElements()) {
+                try (InputStream in = urls.nextElement().openStream()) {
+                    new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+                            .map(String::trim)
+                            .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                            .forEach(classNames::add);
+                }
+            }
+            return classNames;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read " + resource, e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.dopaminelite.dl_file_storage_service.config;
+
+import com.dopaminelite.dl_file_storage_service.outbox.FileChangeSink;
+import com.dopaminelite.dl_file_storage_service.outbox.InProcessFileChangeSink;
+import com.dopaminelite.dl_file_storage_service.outbox.WebhookFileChangeSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxConfig {
+
+    private final StorageProperties properties;
+
+    @Bean
+    public FileChangeSink fileChangeSink(ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper) {
+        StorageProperties.OutboxRelayProperties relayProps = properties.getOutbox().getRelay();
+        return switch (relayProps.getSink()) {
+            case IN_PROCESS -> new InProcessFileChangeSink(eventPublisher);
+            case WEBHOOK -> {
+                if (relayProps.getWebhookUrl() == null || relayProps.getWebhookUrl().isEmpty()) {
+                    throw new IllegalStateException("Webhook URL is required when using the webhook file change sink");
+                }
+                SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+                requestFactory.setConnectTimeout(relayProps.getWebhookTimeoutMillis());
+                requestFactory.setReadTimeout(relayProps.getWebhookTimeoutMillis());
+                RestClient restClient = RestClient.builder().requestFactory(requestFactory).build();
+                yield new WebhookFileChangeSink(restClient, relayProps.getWebhookUrl(), objectMapper, relayProps.getWebhookSecret());
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.dopaminelite.dl_file_storage_service.config;
+
+import com.dopaminelite.dl_file_storage_service.datasource.ReadYourWritesFilter;
+import com.dopaminelite.dl_file_storage_service.datasource.ReadYourWritesTracker;
+import com.dopaminelite.dl_file_storage_service.datasource.ReplicaHealthChecker;
+import com.dopaminelite.dl_file_storage_service.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+@Slf4j
+public class ReadReplicaConfig {
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReadReplicaProperties properties) {
+        return new ReadYourWritesTracker(properties.isEnabled(), Duration.ofMillis(properties.getReadYourWritesWindowMillis()));
+    }
+
+    /**
+     * Replaces the auto-configured DataSource with a lazy proxy over the primary pool whose
+     * read-only connections (those of {@code @Transactional(readOnly = true)}) come from
+     * {@link ReplicaRoutingDataSource}. The proxy defers fetching the physical connection until
+     * the first statement, by which point the transaction's read-only flag is known.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "datasource.read-replicas", name = "enabled", havingValue = "true")
+    static class RoutingDataSourceConfig {
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+            return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        // Owns the replica pools and closes them on shutdown
+        @Bean(initMethod = "check")
+        public ReplicaHealthChecker replicaHealthChecker(DataSourceProperties dataSourceProperties,
+                                                         ReadReplicaProperties properties) {
+            List<ReadReplicaProperties.ReplicaProperties> replicaProps = properties.getReplicas();
+            if (replicaProps.isEmpty()) {
+                throw new IllegalStateException("datasource.read-replicas.replicas must list at least one replica when enabled");
+            }
+            Map<String, DataSource> replicas = new LinkedHashMap<>();
+            for (int i = 0; i < replicaProps.size(); i++) {
+                ReadReplicaProperties.ReplicaProperties replica = replicaProps.get(i);
+                HikariDataSource dataSource = new HikariDataSource();
+                dataSource.setPoolName("replica-" + i);
+                dataSource.setJdbcUrl(replica.getUrl());
+                dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.determineUsername());
+                dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.determinePassword());
+                dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+                dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+                dataSource.setReadOnly(true);
+                // Pools start empty so an unreachable replica does not block startup
+                dataSource.setInitializationFailTimeout(-1);
+                // Health checks (the first runs as the init method) wait this long for a connection,
+                // not Hikari's 30s default, before marking the replica unhealthy
+                long timeoutMillis = Math.max(250, properties.getHealthCheckTimeoutSeconds() * 1000L);
+                dataSource.setConnectionTimeout(timeoutMillis);
+                dataSource.setValidationTimeout(timeoutMillis);
+                replicas.put(dataSource.getPoolName(), dataSource);
+            }
+            log.info("Configured {} read replica(s)", replicas.size());
+            return new ReplicaHealthChecker(replicas,
+                    properties.getHealthCheckTimeoutSeconds(),
+                    properties.getMaxReplicationLagSeconds());
+        }
+
+        @Bean
+        public ReadYourWritesFilter readYourWritesFilter(ReadYourWritesTracker readYourWritesTracker) {
+            return new ReadYourWritesFilter(readYourWritesTracker);
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaHealthChecker replicaHealthChecker) {
+            ReplicaRoutingDataSource readOnlyDataSource =
+                    new ReplicaRoutingDataSource(primaryDataSource, replicaHealthChecker);
+            readOnlyDataSource.afterPropertiesSet();
+
+            LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+            dataSource.setReadOnlyDataSource(readOnlyDataSource);
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.dopaminelite.dl_file_storage_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datasource.read-replicas")
+public class ReadReplicaProperties {
+
+    private boolean enabled = false;
+
+    private List<ReplicaProperties> replicas = new ArrayList<>();
+
+    // After a write, reads of the affected file, user or context go to the primary for this long.
+    // Tracked per instance; requests carrying X-Last-Write-At get the same window on any instance.
+    private long readYourWritesWindowMillis = 5_000;
+
+    private long healthCheckIntervalMillis = 5_000;
+    private int healthCheckTimeoutSeconds = 2;
+    // Replicas replaying more than this far behind are taken out of rotation; 0 disables the check
+    private long maxReplicationLagSeconds = 30;
+
+    private int maximumPoolSize = 10;
+
+    @Getter
+    @Setter
+    public static class ReplicaProperties {
+        private String url;
+        // Default to spring.datasource.username / password
+        private String username;
+        private String password;
+    }
+}
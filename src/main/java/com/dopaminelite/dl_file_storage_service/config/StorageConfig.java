@@ -1,7 +1,15 @@
 package com.dopaminelite.dl_file_storage_service.config;
 
+import com.dopaminelite.dl_file_storage_service.constant.StorageProviderType;
+import com.dopaminelite.dl_file_storage_service.storage.CloudFrontUrlSigner;
+import com.dopaminelite.dl_file_storage_service.storage.LocalFileSystemStorageProvider;
+import com.dopaminelite.dl_file_storage_service.storage.MeteredStorageProvider;
+import com.dopaminelite.dl_file_storage_service.storage.ObjectKeyLayout;
+import com.dopaminelite.dl_file_storage_service.storage.S3MultipartUploader;
 import com.dopaminelite.dl_file_storage_service.storage.S3StorageProvider;
+import com.dopaminelite.dl_file_storage_service.storage.SignedUrlStrategy;
 import com.dopaminelite.dl_file_storage_service.storage.StorageProvider;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -9,12 +17,18 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.S3ClientBuilder;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 @EnableConfigurationProperties(StorageProperties.class)
@@ -24,15 +38,114 @@ public class StorageConfig {
 
     private final StorageProperties properties;
 
+    @Bean(destroyMethod = "close")
+    public StorageProvider storageProvider(MeterRegistry meterRegistry) {
+        StorageProvider provider = switch (properties.getProvider()) {
+            case S3 -> {
+                log.info("Initializing S3 storage provider");
+                yield createS3StorageProvider();
+            }
+            case LOCAL -> {
+                log.info("Initializing local filesystem storage provider");
+                yield createLocalStorageProvider();
+            }
+        };
+        return new MeteredStorageProvider(provider, meterRegistry, properties.getProvider().name().toLowerCase());
+    }
+
     @Bean
-    public StorageProvider storageProvider() {
-        log.info("Initializing S3 storage provider");
-        return createS3StorageProvider();
+    public ObjectKeyLayout objectKeyLayout() {
+        StorageProperties.KeyLayoutProperties layoutProps = properties.getKeyLayout();
+        List<String> buckets = layoutProps.getBuckets();
+        if (!buckets.isEmpty() && properties.getProvider() == StorageProviderType.LOCAL) {
+            log.warn("Key layout buckets apply to S3 storage only; local storage writes under its root directory");
+            buckets = List.of();
+        }
+        log.info("Object key layout: {} (prefix hex chars: {}, buckets: {})",
+                layoutProps.getMode(), layoutProps.getPrefixHexChars(), buckets.isEmpty() ? "default" : buckets);
+        return new ObjectKeyLayout(layoutProps.getMode(), layoutProps.getPrefixHexChars(),
+                layoutProps.getMaxNameLength(), buckets, properties.getS3().getBucketName());
+    }
+
+    /**
+     * Runs per-file storage transfers of multi-file uploads while the (virtual) request thread
+     * waits for them. Virtual threads are cheap enough to spawn per file; concurrency is capped per
+     * request by the caller.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService uploadExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
     }
 
     private StorageProvider createS3StorageProvider() {
         StorageProperties.S3Properties s3Props = properties.getS3();
+        validateS3Properties(s3Props);
+
+        S3Client s3Client = configureClient(S3Client.builder(), s3Props).build();
+        S3Presigner s3Presigner = createS3Presigner(s3Props);
+
+        StorageProperties.MultipartProperties multipartProps = s3Props.getMultipart();
+        S3MultipartUploader multipartUploader = null;
+        if (multipartProps.isEnabled()) {
+            multipartUploader = new S3MultipartUploader(s3Client,
+                    multipartProps.getPartSizeBytes(),
+                    multipartProps.getMaxConcurrency(),
+                    multipartProps.getMaxPartAttempts(),
+                    multipartProps.getMaxBufferedParts());
+        }
+
+        log.info("S3 storage configured with bucket: {}, region: {}", s3Props.getBucketName(), s3Props.getRegion());
+        return new S3StorageProvider(s3Client, s3Presigner, s3Props.getBucketName(),
+                multipartUploader, multipartProps.getThresholdBytes(), createCdnUrlSigner());
+    }
+
+    private SignedUrlStrategy createCdnUrlSigner() {
+        StorageProperties.CdnProperties cdnProps = properties.getSignedUrl().getCdn();
+        if (!cdnProps.isEnabled()) {
+            return null;
+        }
+        if (cdnProps.getDomain() == null || cdnProps.getDomain().isEmpty()
+                || cdnProps.getKeyPairId() == null || cdnProps.getKeyPairId().isEmpty()) {
+            throw new IllegalStateException("CDN domain and key pair ID are required when CDN signed URLs are enabled");
+        }
+
+        // The key is parsed once here; signing reuses it for every URL
+        String pem = cdnProps.getPrivateKey();
+        if (pem == null || pem.isEmpty()) {
+            if (cdnProps.getPrivateKeyPath() == null || cdnProps.getPrivateKeyPath().isEmpty()) {
+                throw new IllegalStateException("CDN private key or private key path is required when CDN signed URLs are enabled");
+            }
+            try {
+                pem = Files.readString(Path.of(cdnProps.getPrivateKeyPath()));
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to read CDN private key at " + cdnProps.getPrivateKeyPath(), e);
+            }
+        }
+        return new CloudFrontUrlSigner(cdnProps.getDomain(), cdnProps.getKeyPairId(),
+                CloudFrontUrlSigner.parsePrivateKey(pem), cdnProps.getIntents());
+    }
 
+    private StorageProvider createLocalStorageProvider() {
+        StorageProperties.LocalProperties localProps = properties.getLocal();
+        if (properties.getSignedUrl().getCdn().isEnabled()) {
+            log.warn("CDN signed URLs apply to S3 storage only; local storage keeps its own signed URLs");
+        }
+
+        if (localProps.getSigningSecret() == null || localProps.getSigningSecret().isEmpty()) {
+            throw new IllegalStateException("Signing secret is required when using local storage provider");
+        }
+
+        try {
+            return new LocalFileSystemStorageProvider(
+                    Path.of(localProps.getRootDir()),
+                    localProps.getPublicBaseUrl(),
+                    localProps.getSigningSecret());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to initialize local storage at " + localProps.getRootDir(), e);
+        }
+    }
+
+    private void validateS3Properties(StorageProperties.S3Properties s3Props) {
         if (s3Props.getBucketName() == null || s3Props.getBucketName().isEmpty()) {
             throw new IllegalStateException("S3 bucket name is required when using S3 storage provider");
         }
@@ -40,18 +153,14 @@ public class StorageConfig {
         if (s3Props.getRegion() == null || s3Props.getRegion().isEmpty()) {
             throw new IllegalStateException("S3 region is required when using S3 storage provider");
         }
+    }
 
-        S3ClientBuilder s3ClientBuilder = S3Client.builder()
-                .region(Region.of(s3Props.getRegion()));
+    private <B extends AwsClientBuilder<B, ?>> B configureClient(B builder, StorageProperties.S3Properties s3Props) {
+        builder.region(Region.of(s3Props.getRegion()));
 
         // Configure credentials if provided
-        if (s3Props.getAccessKeyId() != null && !s3Props.getAccessKeyId().isEmpty() &&
-            s3Props.getSecretAccessKey() != null && !s3Props.getSecretAccessKey().isEmpty()) {
-            AwsBasicCredentials credentials = AwsBasicCredentials.create(
-                    s3Props.getAccessKeyId(),
-                    s3Props.getSecretAccessKey()
-            );
-            s3ClientBuilder.credentialsProvider(StaticCredentialsProvider.create(credentials));
+        if (hasStaticCredentials(s3Props)) {
+            builder.credentialsProvider(staticCredentials(s3Props));
             log.info("Using static AWS credentials for S3");
         } else {
             log.info("Using default AWS credentials chain for S3");
@@ -59,32 +168,38 @@ public class StorageConfig {
 
         // Configure custom endpoint if provided (for S3-compatible services)
         if (s3Props.getEndpoint() != null && !s3Props.getEndpoint().isEmpty()) {
-            s3ClientBuilder.endpointOverride(URI.create(s3Props.getEndpoint()));
+            builder.endpointOverride(URI.create(s3Props.getEndpoint()));
             log.info("Using custom S3 endpoint: {}", s3Props.getEndpoint());
         }
+        return builder;
+    }
 
-        S3Client s3Client = s3ClientBuilder.build();
-
-        // Create S3 Presigner with same configuration
+    private S3Presigner createS3Presigner(StorageProperties.S3Properties s3Props) {
+        // Create S3 Presigner with same configuration as the client
         S3Presigner.Builder presignerBuilder = S3Presigner.builder()
                 .region(Region.of(s3Props.getRegion()));
 
-        if (s3Props.getAccessKeyId() != null && !s3Props.getAccessKeyId().isEmpty() &&
-            s3Props.getSecretAccessKey() != null && !s3Props.getSecretAccessKey().isEmpty()) {
-            AwsBasicCredentials credentials = AwsBasicCredentials.create(
-                    s3Props.getAccessKeyId(),
-                    s3Props.getSecretAccessKey()
-            );
-            presignerBuilder.credentialsProvider(StaticCredentialsProvider.create(credentials));
+        if (hasStaticCredentials(s3Props)) {
+            presignerBuilder.credentialsProvider(staticCredentials(s3Props));
         }
 
         if (s3Props.getEndpoint() != null && !s3Props.getEndpoint().isEmpty()) {
             presignerBuilder.endpointOverride(URI.create(s3Props.getEndpoint()));
         }
 
-        S3Presigner s3Presigner = presignerBuilder.build();
+        return presignerBuilder.build();
+    }
 
-        log.info("S3 storage configured with bucket: {}, region: {}", s3Props.getBucketName(), s3Props.getRegion());
-        return new S3StorageProvider(s3Client, s3Presigner, s3Props.getBucketName());
+    private boolean hasStaticCredentials(StorageProperties.S3Properties s3Props) {
+        return s3Props.getAccessKeyId() != null && !s3Props.getAccessKeyId().isEmpty() &&
+               s3Props.getSecretAccessKey() != null && !s3Props.getSecretAccessKey().isEmpty();
+    }
+
+    private StaticCredentialsProvider staticCredentials(StorageProperties.S3Properties s3Props) {
+        AwsBasicCredentials credentials = AwsBasicCredentials.create(
+                s3Props.getAccessKeyId(),
+                s3Props.getSecretAccessKey()
+        );
+        return StaticCredentialsProvider.create(credentials);
     }
 }
@@ -1,26 +1,266 @@
 package com.dopaminelite.dl_file_storage_service.config;
 
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.constant.KeyLayoutMode;
+import com.dopaminelite.dl_file_storage_service.constant.OutboxSinkType;
+import com.dopaminelite.dl_file_storage_service.constant.ReconciliationMode;
+import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+import com.dopaminelite.dl_file_storage_service.constant.StorageProviderType;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
+import java.util.EnumSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 @Getter
 @Setter
 @ConfigurationProperties(prefix = "storage")
 public class StorageProperties {
 
+    private StorageProviderType provider = StorageProviderType.S3;
+
     @NestedConfigurationProperty
     private SignedUrlProperties signedUrl = new SignedUrlProperties();
 
+    @NestedConfigurationProperty
+    private KeyLayoutProperties keyLayout = new KeyLayoutProperties();
+
+    @NestedConfigurationProperty
+    private UploadProperties upload = new UploadProperties();
+
+    @NestedConfigurationProperty
+    private DirectUploadProperties directUpload = new DirectUploadProperties();
+
+    @NestedConfigurationProperty
+    private DedupProperties dedup = new DedupProperties();
+
+    @NestedConfigurationProperty
+    private MetadataCacheProperties metadataCache = new MetadataCacheProperties();
+
+    @NestedConfigurationProperty
+    private PurgeProperties purge = new PurgeProperties();
+
+    @NestedConfigurationProperty
+    private ReconciliationProperties reconciliation = new ReconciliationProperties();
+
+    @NestedConfigurationProperty
+    private OutboxProperties outbox = new OutboxProperties();
+
+    @NestedConfigurationProperty
+    private UsageProperties usage = new UsageProperties();
+
+    @NestedConfigurationProperty
+    private IndexMigrationProperties indexMigration = new IndexMigrationProperties();
+
     // S3 configuration
     @NestedConfigurationProperty
     private S3Properties s3 = new S3Properties();
 
+    // Local filesystem configuration (storage.provider=local)
+    @NestedConfigurationProperty
+    private LocalProperties local = new LocalProperties();
+
     @Getter
     @Setter
     public static class SignedUrlProperties {
         private int defaultExpirationSeconds = 900;
+
+        @NestedConfigurationProperty
+        private SignedUrlCacheProperties cache = new SignedUrlCacheProperties();
+
+        @NestedConfigurationProperty
+        private CdnProperties cdn = new CdnProperties();
+    }
+
+    // Layout of new object keys; existing storage paths are unaffected
+    @Getter
+    @Setter
+    public static class KeyLayoutProperties {
+        private KeyLayoutMode mode = KeyLayoutMode.HASHED;
+        // Hash prefix under each context type: 2 hex chars = 256 prefixes
+        private int prefixHexChars = 2;
+        private int maxNameLength = 100;
+        // S3 buckets new objects are spread across; empty keeps them all in storage.s3.bucket-name
+        private List<String> buckets = new ArrayList<>();
+    }
+
+    // CloudFront signed URLs (canned policy) for S3-backed downloads
+    @Getter
+    @Setter
+    public static class CdnProperties {
+        private boolean enabled = false;
+        // Distribution domain, e.g. https://d111111abcdef8.cloudfront.net
+        private String domain;
+        // Public key ID from the distribution's trusted key group
+        private String keyPairId;
+        // PEM private key file; private-key (the PEM text itself) takes precedence when set
+        private String privateKeyPath;
+        private String privateKey;
+        // Intents served through the CDN; the others are presigned against S3
+        private Set<SignedUrlIntent> intents = EnumSet.allOf(SignedUrlIntent.class);
+    }
+
+    @Getter
+    @Setter
+    public static class SignedUrlCacheProperties {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        // A cached URL is reused only while at least this fraction of its lifetime remains
+        private double minRemainingRatio = 0.5;
+        // Requested lifetimes are rounded down to a multiple of this so nearby values share entries
+        private int expiryBucketSeconds = 60;
+    }
+
+    @Getter
+    @Setter
+    public static class DirectUploadProperties {
+        // Lifetime of presigned PUT / part URLs and of the pending upload itself
+        private int urlExpirationSeconds = 900;
+        private long maxSizeBytes = 5L * 1024 * 1024 * 1024;
+
+        @NestedConfigurationProperty
+        private PendingUploadCleanupProperties cleanup = new PendingUploadCleanupProperties();
+    }
+
+    // Expired pending uploads can no longer be completed; their objects or multipart uploads are removed
+    @Getter
+    @Setter
+    public static class PendingUploadCleanupProperties {
+        private boolean enabled = true;
+        private long fixedDelayMillis = 900_000;
+        private int batchSize = 200;
+        private int maxBatchesPerRun = 50;
+    }
+
+    @Getter
+    @Setter
+    public static class PurgeProperties {
+        // Permanently removes content, so it has to be switched on explicitly
+        private boolean enabled = false;
+        // Soft-deleted files are kept this long before their objects and rows are removed
+        private int retentionDays = 30;
+        private long fixedDelayMillis = 3_600_000;
+        // Rows per batch; also the key count of one DeleteObjects call, so at most 1000
+        private int batchSize = 500;
+        // Rate limit: batches per run and the pause between them
+        private int maxBatchesPerRun = 100;
+        private long pauseBetweenBatchesMillis = 250;
+    }
+
+    @Getter
+    @Setter
+    public static class ReconciliationProperties {
+        private boolean enabled = false;
+        // REPORT only logs and counts orphaned objects; DELETE also removes them
+        private ReconciliationMode mode = ReconciliationMode.REPORT;
+        private long fixedDelayMillis = 21_600_000;
+        private int pageSize = 1000;
+        // Pages listed per run across all prefixes; progress is checkpointed after every page
+        private int maxPagesPerRun = 200;
+        // Objects and rows younger than this are skipped, as their upload may still be in flight
+        private int gracePeriodHours = 24;
+    }
+
+    // Change events for created/deleted files, written with the change and relayed to a sink
+    @Getter
+    @Setter
+    public static class OutboxProperties {
+        private boolean enabled = true;
+        // The feed only returns events at least this old, so ids of still-committing transactions are not skipped
+        private long visibilityDelayMillis = 2_000;
+        // Events are kept this long for pull consumers
+        private int retentionDays = 7;
+        private long pruneFixedDelayMillis = 3_600_000;
+
+        @NestedConfigurationProperty
+        private OutboxRelayProperties relay = new OutboxRelayProperties();
+    }
+
+    @Getter
+    @Setter
+    public static class OutboxRelayProperties {
+        private boolean enabled = false;
+        private OutboxSinkType sink = OutboxSinkType.IN_PROCESS;
+        private long fixedDelayMillis = 1_000;
+        private int batchSize = 200;
+        private int maxBatchesPerRun = 50;
+        private String webhookUrl;
+        // Optional HMAC-SHA256 key for the X-Signature-SHA256 header
+        private String webhookSecret;
+        // Connect and read timeout of each webhook POST
+        private int webhookTimeoutMillis = 5_000;
+        // How long a claimed batch is reserved for its relay; must outlast publishing it, after that
+        // another relay re-delivers the batch
+        private long claimLeaseMillis = 60_000;
+    }
+
+    // Per-user and per-context usage counters, maintained with every upload and soft delete
+    @Getter
+    @Setter
+    public static class UsageProperties {
+        private boolean enabled = true;
+
+        @NestedConfigurationProperty
+        private QuotaProperties quota = new QuotaProperties();
+
+        @NestedConfigurationProperty
+        private UsageReconciliationProperties reconciliation = new UsageReconciliationProperties();
+    }
+
+    // Limits on active files; 0 means unlimited. Context limits apply to files with a contextRefId
+    @Getter
+    @Setter
+    public static class QuotaProperties {
+        private boolean enabled = false;
+        private long maxFilesPerUser = 0;
+        private long maxBytesPerUser = 0;
+        private long maxFilesPerContext = 0;
+        private long maxBytesPerContext = 0;
+    }
+
+    @Getter
+    @Setter
+    public static class UsageReconciliationProperties {
+        private boolean enabled = true;
+        private long fixedDelayMillis = 21_600_000;
+        // Users or contexts recounted per transaction
+        private int batchSize = 1000;
+    }
+
+    // Secondary indexes built with CREATE INDEX CONCURRENTLY after startup (ConcurrentIndexMigrator)
+    @Getter
+    @Setter
+    public static class IndexMigrationProperties {
+        private boolean enabled = true;
+    }
+
+    @Getter
+    @Setter
+    public static class DedupProperties {
+        private boolean enabled = false;
+        // Context types deduplicated when enabled; empty means all
+        private Set<FileContextType> contextTypes = new HashSet<>();
+    }
+
+    @Getter
+    @Setter
+    public static class MetadataCacheProperties {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        // Bounds how long another instance may serve metadata of a file deleted elsewhere
+        private long ttlSeconds = 60;
+    }
+
+    @Getter
+    @Setter
+    public static class UploadProperties {
+        // Files of one multi-file request that are transferred to storage at the same time
+        private int maxConcurrentFilesPerRequest = 4;
     }
 
     @Getter
@@ -31,5 +271,32 @@ public class StorageProperties {
         private String accessKeyId;
         private String secretAccessKey;
         private String endpoint; // Optional: for S3-compatible services
+
+        @NestedConfigurationProperty
+        private MultipartProperties multipart = new MultipartProperties();
+    }
+
+    @Getter
+    @Setter
+    public static class MultipartProperties {
+        private boolean enabled = true;
+        // Objects at or above this size are sent as parallel multipart uploads
+        private long thresholdBytes = 16L * 1024 * 1024;
+        private long partSizeBytes = 8L * 1024 * 1024;
+        // Parts uploaded concurrently per object
+        private int maxConcurrency = 4;
+        private int maxPartAttempts = 3;
+        // Part buffers shared by all uploads; bounds part memory at this many * part-size-bytes
+        private int maxBufferedParts = 8;
+    }
+
+    @Getter
+    @Setter
+    public static class LocalProperties {
+        private String rootDir = "./data/storage";
+        // Base URL under which this service is reachable, used to build signed URLs
+        private String publicBaseUrl = "http://localhost:8901/file-service";
+        // HMAC key for signed URLs; required when the local provider is active
+        private String signingSecret;
     }
 }
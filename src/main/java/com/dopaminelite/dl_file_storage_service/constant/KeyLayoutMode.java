@@ -0,0 +1,8 @@
+package com.dopaminelite.dl_file_storage_service.constant;
+
+public enum KeyLayoutMode {
+    // contextType/uuid_originalName
+    LEGACY,
+    // [bucket:]contextType/hashPrefix/uuid_sanitizedName
+    HASHED
+}
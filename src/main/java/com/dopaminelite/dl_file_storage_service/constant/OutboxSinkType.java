@@ -0,0 +1,7 @@
+package com.dopaminelite.dl_file_storage_service.constant;
+
+public enum OutboxSinkType {
+    // Spring application events, for in-process listeners and tests
+    IN_PROCESS,
+    WEBHOOK
+}
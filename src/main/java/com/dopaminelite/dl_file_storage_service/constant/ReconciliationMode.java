@@ -0,0 +1,6 @@
+package com.dopaminelite.dl_file_storage_service.constant;
+
+public enum ReconciliationMode {
+    REPORT,
+    DELETE
+}
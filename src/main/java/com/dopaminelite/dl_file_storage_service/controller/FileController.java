@@ -3,15 +3,30 @@ package com.dopaminelite.dl_file_storage_service.controller;
 import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
 import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
 import com.dopaminelite.dl_file_storage_service.dto.*;
+import com.dopaminelite.dl_file_storage_service.exception.BadRequestException;
+import com.dopaminelite.dl_file_storage_service.exception.QuotaExceededException;
+import com.dopaminelite.dl_file_storage_service.service.DirectUploadService;
+import com.dopaminelite.dl_file_storage_service.service.FileChangeService;
 import com.dopaminelite.dl_file_storage_service.service.FileStorageService;
+import com.dopaminelite.dl_file_storage_service.service.UsageService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,7 +36,12 @@ import java.util.UUID;
 @Slf4j
 public class FileController {
 
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     private final FileStorageService fileStorageService;
+    private final DirectUploadService directUploadService;
+    private final FileChangeService fileChangeService;
+    private final UsageService usageService;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<List<FileUploadResponse>> uploadFiles(
@@ -33,12 +53,13 @@ public class FileController {
             log.debug("Uploading {} file(s) for userId: {}, contextType: {}, contextRefId: {}",
                     files.size(), createdByUserId, contextType, contextRefId);
 
-            List<FileUploadResponse> responses = files.stream()
-                    .map(file -> fileStorageService.uploadFile(file, createdByUserId, contextType, contextRefId, true))
-                    .toList();
+            List<FileUploadResponse> responses = fileStorageService.uploadFiles(files, createdByUserId, contextType, contextRefId, true);
 
             log.debug("Successfully uploaded {} file(s) for userId: {}", responses.size(), createdByUserId);
             return ResponseEntity.status(HttpStatus.CREATED).body(responses);
+        } catch (QuotaExceededException e) {
+            log.warn("Rejected upload for userId: {}: {}", createdByUserId, e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("Error uploading files for userId: {}", createdByUserId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -51,13 +72,42 @@ public class FileController {
             @RequestParam(value = "contextType", required = false) FileContextType contextType,
             @RequestParam(value = "contextRefId", required = false) String contextRefId,
             @RequestParam(value = "limit", required = false, defaultValue = "20") int limit,
-            @RequestParam(value = "offset", required = false, defaultValue = "0") int offset) {
-        log.debug("Listing files for userId: {}, contextType: {}, contextRefId: {}, limit: {}, offset: {}",
-                createdByUserId, contextType, contextRefId, limit, offset);
-        FileListResponse response = fileStorageService.listFiles(createdByUserId, contextType, contextRefId, limit, offset);
+            @RequestParam(value = "offset", required = false, defaultValue = "0") int offset,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "includeTotal", required = false, defaultValue = "false") boolean includeTotal,
+            @RequestParam(value = "order", required = false, defaultValue = "asc") String order) {
+        log.debug("Listing files for userId: {}, contextType: {}, contextRefId: {}, limit: {}, offset: {}, cursor: {}, order: {}",
+                createdByUserId, contextType, contextRefId, limit, offset, cursor, order);
+        Sort.Direction direction = Sort.Direction.fromOptionalString(order)
+                .orElseThrow(() -> new BadRequestException("order must be 'asc' or 'desc'"));
+        // Presence of the cursor parameter (even empty, for the first page) selects keyset pagination
+        FileListResponse response = cursor != null
+                ? fileStorageService.listFilesAfter(createdByUserId, contextType, contextRefId, direction, limit, cursor, includeTotal)
+                : fileStorageService.listFiles(createdByUserId, contextType, contextRefId, direction, limit, offset);
         return ResponseEntity.ok(response);
     }
 
+    // Created/deleted events after a cursor, for consumers that would otherwise poll listFiles
+    @GetMapping("/changes")
+    public FileChangeFeedResponse listChanges(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "contextType", required = false) FileContextType contextType,
+            @RequestParam(value = "contextRefId", required = false) String contextRefId,
+            @RequestParam(value = "limit", required = false, defaultValue = "100") int limit) {
+        log.debug("Listing file changes after: {}, contextType: {}, contextRefId: {}, limit: {}", after, contextType, contextRefId, limit);
+        return fileChangeService.listChanges(after, contextType, contextRefId, limit);
+    }
+
+    // Active files and bytes of a user, or of a context (type and ref id), with any applicable quota
+    @GetMapping("/usage")
+    public UsageResponse getUsage(
+            @RequestParam(value = "createdByUserId", required = false) UUID createdByUserId,
+            @RequestParam(value = "contextType", required = false) FileContextType contextType,
+            @RequestParam(value = "contextRefId", required = false) String contextRefId) {
+        log.debug("Fetching usage for userId: {}, contextType: {}, contextRefId: {}", createdByUserId, contextType, contextRefId);
+        return usageService.getUsage(createdByUserId, contextType, contextRefId);
+    }
+
     @GetMapping("/{fileId}")
     public StoredFileDto getFile(@PathVariable UUID fileId) {
         log.debug("Fetching file with id: {}", fileId);
@@ -69,6 +119,113 @@ public class FileController {
         }
     }
 
+    /**
+     * Streams the file's content through the service. Honors a single {@code Range} and
+     * {@code If-None-Match}/{@code If-Range} against the content ETag; multi-range requests
+     * are served in full.
+     */
+    @GetMapping("/{fileId}/content")
+    public void downloadContent(@PathVariable UUID fileId,
+                                @RequestParam(value = "intent", required = false, defaultValue = "VIEW") SignedUrlIntent intent,
+                                @RequestHeader HttpHeaders requestHeaders,
+                                HttpServletResponse response) throws IOException {
+        StoredFileDto file = fileStorageService.getFile(fileId);
+        long size = file.getSizeBytes();
+        String eTag = contentETag(file);
+
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (matchesETag(requestHeaders.getIfNoneMatch(), eTag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long length = size;
+        List<HttpRange> ranges = requestedRanges(requestHeaders, eTag);
+        if (ranges.size() == 1) {
+            HttpRange range = ranges.get(0);
+            if (size == 0 || !isSatisfiable(range, size)) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            start = range.getRangeStart(size);
+            length = range.getRangeEnd(size) - start + 1;
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + length - 1) + "/" + size);
+        }
+
+        ContentDisposition disposition = (intent == SignedUrlIntent.DOWNLOAD
+                ? ContentDisposition.attachment()
+                : ContentDisposition.inline())
+                .filename(file.getOriginalFileName(), StandardCharsets.UTF_8)
+                .build();
+        response.setContentType(file.getMimeType() != null ? file.getMimeType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+        response.setContentLengthLong(length);
+        if (length == 0) {
+            return;
+        }
+
+        log.debug("Streaming fileId: {} bytes {}-{} of {}", fileId, start, start + length - 1, size);
+        try (InputStream content = fileStorageService.openFileContent(file, start, length)) {
+            copy(content, response.getOutputStream(), length);
+        }
+    }
+
+    private static String contentETag(StoredFileDto file) {
+        String tag = file.getSha256() != null ? file.getSha256() : file.getId() + "-" + file.getSizeBytes();
+        return "\"" + tag + "\"";
+    }
+
+    private static boolean matchesETag(List<String> candidates, String eTag) {
+        for (String candidate : candidates) {
+            // Weak comparison: a W/ prefix on the client's tag still matches
+            String normalized = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if ("*".equals(normalized) || eTag.equals(normalized)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<HttpRange> requestedRanges(HttpHeaders requestHeaders, String eTag) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(eTag)) {
+            return List.of();
+        }
+        try {
+            return requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            // Malformed Range headers are ignored, as RFC 9110 permits
+            return List.of();
+        }
+    }
+
+    private static boolean isSatisfiable(HttpRange range, long size) {
+        try {
+            return range.getRangeStart(size) < size;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out, long length) throws IOException {
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        long remaining = length;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new EOFException("Storage stream ended " + remaining + " bytes early");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+        out.flush();
+    }
+
     @DeleteMapping("/{fileId}")
     public ResponseEntity<Void> deleteFile(@PathVariable UUID fileId) {
         log.debug("Soft deleting file with id: {}", fileId);
@@ -97,13 +254,39 @@ public class FileController {
 
     @PostMapping(value = "/signed-urls", consumes = MediaType.APPLICATION_JSON_VALUE)
     public BulkFileSignedUrlResponse bulkSignedUrls(@RequestBody BulkSignedUrlsRequest request,
-                                                    @RequestParam(value = "expiresInSeconds", required = false) Integer expiresInSeconds) {
-        log.debug("Generating bulk signed URLs for {} files, expiresInSeconds: {}", request.getItems().size(), expiresInSeconds);
+                                                    @RequestParam(value = "expiresInSeconds", required = false) Integer expiresInSeconds,
+                                                    @RequestParam(value = "partialSuccess", required = false, defaultValue = "false") boolean partialSuccess) {
+        log.debug("Generating bulk signed URLs for {} files, expiresInSeconds: {}, partialSuccess: {}",
+                request.getItems().size(), expiresInSeconds, partialSuccess);
         try {
-            return fileStorageService.bulkGenerateSignedUrls(request.getItems(), expiresInSeconds);
+            return fileStorageService.bulkGenerateSignedUrls(request.getItems(), expiresInSeconds, partialSuccess);
         } catch (Exception e) {
             log.error("Error generating bulk signed URLs", e);
             throw e;
         }
     }
+
+    @PostMapping(value = "/uploads", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<InitiateUploadResponse> initiateUpload(@RequestBody InitiateUploadRequest request) {
+        log.debug("Initiating direct upload for userId: {}, contextType: {}",
+                request.getCreatedByUserId(), request.getContextType());
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(directUploadService.initiateUpload(request));
+        } catch (Exception e) {
+            log.error("Error initiating direct upload for userId: {}", request.getCreatedByUserId(), e);
+            throw e;
+        }
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    public ResponseEntity<FileUploadResponse> completeUpload(@PathVariable UUID uploadId,
+                                                             @RequestBody(required = false) CompleteUploadRequest request) {
+        log.debug("Completing direct upload: {}", uploadId);
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(directUploadService.completeUpload(uploadId, request));
+        } catch (Exception e) {
+            log.error("Error completing direct upload: {}", uploadId, e);
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package com.dopaminelite.dl_file_storage_service.controller;
+
+import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+import com.dopaminelite.dl_file_storage_service.storage.LocalFileSystemStorageProvider;
+import com.dopaminelite.dl_file_storage_service.storage.StorageProvider;
+import com.dopaminelite.dl_file_storage_service.storage.StoredObjectMetadata;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Serves objects of the local filesystem storage provider through the HMAC-signed URLs it
+ * generates. Responds 404 when another storage provider is active.
+ */
+@RestController
+@RequestMapping("/api/v1/files/local-content")
+@RequiredArgsConstructor
+@Slf4j
+public class LocalFileController {
+
+    private final StorageProvider storageProvider;
+
+    @GetMapping
+    public void download(@RequestParam("path") String path,
+                         @RequestParam("intent") SignedUrlIntent intent,
+                         @RequestParam("expires") long expires,
+                         @RequestParam("signature") String signature,
+                         HttpServletResponse response) throws IOException {
+        Optional<LocalFileSystemStorageProvider> local = storageProvider.unwrap(LocalFileSystemStorageProvider.class);
+        if (local.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        LocalFileSystemStorageProvider localProvider = local.get();
+        if (!localProvider.verifySignedUrl(path, intent, expires, signature)) {
+            log.warn("Rejected local content request with invalid or expired signature for path: {}", path);
+            response.sendError(HttpStatus.FORBIDDEN.value());
+            return;
+        }
+        Optional<StoredObjectMetadata> metadata = localProvider.headObject(path);
+        if (metadata.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        long size = metadata.get().contentLength();
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+        ContentDisposition disposition = (intent == SignedUrlIntent.DOWNLOAD
+                ? ContentDisposition.attachment()
+                : ContentDisposition.inline())
+                .filename(fileName, StandardCharsets.UTF_8)
+                .build();
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(size);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+        localProvider.transferTo(path, 0, size, Channels.newChannel(response.getOutputStream()));
+    }
+}
@@ -0,0 +1,163 @@
+package com.dopaminelite.dl_file_storage_service.datasource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the secondary indexes of the large tables with {@code CREATE INDEX CONCURRENTLY} once the
+ * application is ready, so neither startup nor writes wait for an index build (schema.sql runs on
+ * every start and only holds cheap statements). Indexes left invalid by an interrupted build are
+ * dropped and rebuilt; the indexes they replace are dropped only once every index is valid. A
+ * PostgreSQL advisory lock keeps instances starting together from building the same index twice.
+ */
+@Component
+@ConditionalOnProperty(prefix = "storage.index-migration", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ConcurrentIndexMigrator {
+
+    // Key of the session-level advisory lock held while migrating
+    static final long ADVISORY_LOCK_KEY = 0x646c5f69647831L;
+
+    static final List<IndexDefinition> INDEXES = List.of(
+            // Purge walks soft-deleted rows in (updated_at, id) order without scanning active rows
+            new IndexDefinition("idx_stored_files_purge",
+                    "dopaminelite_stored_files (updated_at, id) WHERE is_deleted"),
+            // Byte-wise ordered storage paths, so reconciliation can range-scan rows in listing order
+            new IndexDefinition("idx_stored_files_storage_path_c",
+                    "dopaminelite_stored_files (storage_path COLLATE \"C\") WHERE NOT is_deleted"),
+            // Listings filter active rows on any combination of user, context type and context ref,
+            // ordered by (created_at, id) in either direction
+            new IndexDefinition("idx_stored_files_active_created",
+                    "dopaminelite_stored_files (created_at, id) WHERE NOT is_deleted"),
+            new IndexDefinition("idx_stored_files_active_user_created",
+                    "dopaminelite_stored_files (created_by_user_id, created_at, id) WHERE NOT is_deleted"),
+            new IndexDefinition("idx_stored_files_active_user_context_created",
+                    "dopaminelite_stored_files (created_by_user_id, context_type, created_at, id) WHERE NOT is_deleted"),
+            new IndexDefinition("idx_stored_files_active_context_created",
+                    "dopaminelite_stored_files (context_type, created_at, id) WHERE NOT is_deleted"),
+            new IndexDefinition("idx_stored_files_active_context_ref_created",
+                    "dopaminelite_stored_files (context_type, context_ref_id, created_at, id) WHERE NOT is_deleted"),
+            new IndexDefinition("idx_stored_files_active_ref_created",
+                    "dopaminelite_stored_files (context_ref_id, created_at, id) WHERE NOT is_deleted AND context_ref_id IS NOT NULL"),
+            // Outbox relay: only unpublished events are scanned, in id order
+            new IndexDefinition("idx_file_change_events_unpublished",
+                    "dopaminelite_file_change_events (id) WHERE published_at IS NULL"),
+            // Change feed filtered by context type alone (type + ref uses idx_file_change_events_context)
+            new IndexDefinition("idx_file_change_events_context_type",
+                    "dopaminelite_file_change_events (context_type, id)"));
+
+    // Full indexes on (context_type, context_ref_id) and (created_by_user_id), replaced by the listing indexes
+    static final List<String> OBSOLETE_INDEXES = List.of("idx_context_type_ref", "idx_created_by");
+
+    private final DataSource dataSource;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInBackground() {
+        Thread.ofVirtual().name("index-migration").start(() -> {
+            try {
+                migrate();
+            } catch (SQLException | RuntimeException e) {
+                log.error("Index migration failed; it is resumed on the next start", e);
+            }
+        });
+    }
+
+    /**
+     * Creates missing indexes, rebuilds invalid ones and then drops the obsolete ones. Returns
+     * false, without changing anything, if another instance is migrating.
+     */
+    public boolean migrate() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                log.info("Index migration skipped: not a PostgreSQL database");
+                return true;
+            }
+            // CREATE INDEX CONCURRENTLY cannot run inside a transaction block
+            connection.setAutoCommit(true);
+            if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+                log.info("Index migration is running on another instance");
+                return false;
+            }
+            try {
+                for (IndexDefinition index : INDEXES) {
+                    ensureIndex(connection, index);
+                }
+                for (IndexDefinition index : INDEXES) {
+                    if (!Boolean.TRUE.equals(indexValidity(connection, index.name()))) {
+                        log.warn("Index {} is not valid; obsolete indexes are kept", index.name());
+                        return true;
+                    }
+                }
+                for (String name : OBSOLETE_INDEXES) {
+                    if (indexValidity(connection, name) != null) {
+                        log.info("Dropping obsolete index {}", name);
+                        execute(connection, "DROP INDEX CONCURRENTLY IF EXISTS " + name);
+                    }
+                }
+            } finally {
+                advisoryLock(connection, "pg_advisory_unlock");
+            }
+        }
+        return true;
+    }
+
+    private void ensureIndex(Connection connection, IndexDefinition index) throws SQLException {
+        Boolean valid = indexValidity(connection, index.name());
+        if (Boolean.TRUE.equals(valid)) {
+            return;
+        }
+        if (valid != null) {
+            // Left behind by a concurrent build that failed or was interrupted; it is maintained but never used
+            log.warn("Rebuilding invalid index {}", index.name());
+            execute(connection, "DROP INDEX CONCURRENTLY IF EXISTS " + index.name());
+        }
+        log.info("Creating index {}", index.name());
+        long start = System.nanoTime();
+        execute(connection, "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + index.name() + " ON " + index.definition());
+        log.info("Created index {} in {} ms", index.name(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    // Null if no such index exists
+    private static Boolean indexValidity(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "select indisvalid from pg_index where indexrelid = to_regclass(?)")) {
+            statement.setString(1, name);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getBoolean(1) : null;
+            }
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select " + function + "(" + ADVISORY_LOCK_KEY + ")")) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * @param definition everything after {@code ON}: table, key columns and optional predicate
+     */
+    record IndexDefinition(String name, String definition) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.dopaminelite.dl_file_storage_service.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Read-your-writes carried by the request rather than by instance memory: a client that has just
+ * written sends {@value #LAST_WRITE_AT_HEADER} (epoch millis of its last write, e.g. taken when the
+ * write's response arrived) and every read of the request goes to the primary while that write is
+ * within the window, whichever instance made it. Missing or malformed values leave routing as is.
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String LAST_WRITE_AT_HEADER = "X-Last-Write-At";
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Long lastWriteAt = parse(request.getHeader(LAST_WRITE_AT_HEADER));
+        if (lastWriteAt == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try (ReadYourWritesTracker.Scope ignored = readYourWritesTracker.forClientWrite(lastWriteAt)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private static Long parse(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.dopaminelite.dl_file_storage_service.datasource;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.repository.StoredFileFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Remembers recent writes for a short window so that reads which could observe them are sent to
+ * the primary instead of a possibly lagging replica. Writes are recorded under the keys reads look
+ * up by: the file, its uploader, its context, and the unfiltered listing.
+ * <p>
+ * A read opens a {@link Scope} before its first query; while the scope is open,
+ * {@link ReplicaRoutingDataSource} hands out primary connections only.
+ * <p>
+ * Recorded writes live in this instance's memory, so they only cover reads that land on the
+ * instance which made the write. Clients that may be routed to another instance send the time of
+ * their last write with the read instead ({@link ReadYourWritesFilter}, {@link #forClientWrite}).
+ */
+public class ReadYourWritesTracker {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+    private static final Scope NO_OP_SCOPE = () -> { };
+
+    // Null when routing is disabled: every read already goes to the primary
+    private final Cache<String, Boolean> recentWrites;
+    private final long windowMillis;
+
+    public ReadYourWritesTracker(boolean enabled, Duration window) {
+        this.windowMillis = window.toMillis();
+        this.recentWrites = enabled && !window.isZero()
+                ? Caffeine.newBuilder().expireAfterWrite(window).maximumSize(100_000).build()
+                : null;
+    }
+
+    static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    public void recordFileWrite(UUID fileId, UUID createdByUserId, FileContextType contextType, String contextRefId) {
+        if (recentWrites == null) {
+            return;
+        }
+        recentWrites.put(fileKey(fileId), Boolean.TRUE);
+        recentWrites.put(listingKey(new StoredFileFilter(createdByUserId, null, null)), Boolean.TRUE);
+        recentWrites.put(listingKey(new StoredFileFilter(null, contextType, null)), Boolean.TRUE);
+        if (contextRefId != null) {
+            recentWrites.put(listingKey(new StoredFileFilter(null, contextType, contextRefId)), Boolean.TRUE);
+            recentWrites.put(listingKey(new StoredFileFilter(null, null, contextRefId)), Boolean.TRUE);
+        }
+        recentWrites.put(listingKey(new StoredFileFilter(null, null, null)), Boolean.TRUE);
+    }
+
+    public Scope forFile(UUID fileId) {
+        return scope(isRecent(fileKey(fileId)));
+    }
+
+    public Scope forFiles(Collection<UUID> fileIds) {
+        if (recentWrites == null) {
+            return NO_OP_SCOPE;
+        }
+        return scope(fileIds.stream().anyMatch(fileId -> isRecent(fileKey(fileId))));
+    }
+
+    public Scope forListing(StoredFileFilter filter) {
+        return scope(isRecent(listingKey(filter)));
+    }
+
+    /**
+     * Sends the enclosed reads to the primary regardless of recent writes, e.g. for rows written by
+     * an earlier request of the same client flow.
+     */
+    public Scope requirePrimary() {
+        return scope(recentWrites != null);
+    }
+
+    /**
+     * Sends the enclosed reads to the primary if the client's last write, at the given epoch
+     * millis, falls within the window. A time ahead of this instance's clock by less than the
+     * window counts as recent, to tolerate skew between instances.
+     */
+    public Scope forClientWrite(long lastWriteAtMillis) {
+        long age = System.currentTimeMillis() - lastWriteAtMillis;
+        return scope(recentWrites != null && Math.abs(age) < windowMillis);
+    }
+
+    private boolean isRecent(String key) {
+        return recentWrites != null && recentWrites.getIfPresent(key) != null;
+    }
+
+    private static Scope scope(boolean primaryRequired) {
+        if (!primaryRequired || isPrimaryRequired()) {
+            return NO_OP_SCOPE;
+        }
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        return PRIMARY_REQUIRED::remove;
+    }
+
+    private static String fileKey(UUID fileId) {
+        return "file:" + fileId;
+    }
+
+    // The most selective filter a listing uses decides which writes it must observe
+    private static String listingKey(StoredFileFilter filter) {
+        if (filter.createdByUserId() != null) return "user:" + filter.createdByUserId();
+        if (filter.contextType() != null && filter.contextRefId() != null) return "context:" + filter.contextType() + ":" + filter.contextRefId();
+        if (filter.contextType() != null) return "context:" + filter.contextType();
+        if (filter.contextRefId() != null) return "ref:" + filter.contextRefId();
+        return "all";
+    }
+
+    /**
+     * Routing override of one read; closing it restores replica routing.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
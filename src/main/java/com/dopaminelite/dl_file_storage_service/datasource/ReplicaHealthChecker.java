@@ -0,0 +1,110 @@
+package com.dopaminelite.dl_file_storage_service.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the replica pools, periodically probes them and hands out the healthy ones round-robin.
+ * A replica is healthy if it answers within the timeout and, when a maximum lag is set, is not
+ * replaying further behind the primary than that.
+ */
+@Slf4j
+public class ReplicaHealthChecker implements AutoCloseable {
+
+    // Zero when all received WAL has been replayed, so an idle primary does not read as lag
+    private static final String LAG_QUERY = """
+            select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                        else extract(epoch from now() - pg_last_xact_replay_timestamp()) end
+            """;
+
+    private final Map<String, DataSource> replicas;
+    private final int timeoutSeconds;
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> healthy = List.of();
+
+    public ReplicaHealthChecker(Map<String, DataSource> replicas, int timeoutSeconds, long maxLagSeconds) {
+        this.replicas = replicas;
+        this.timeoutSeconds = timeoutSeconds;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Name of the next healthy replica, or empty if none is healthy and reads must use the primary.
+     */
+    public Optional<String> nextHealthyReplica() {
+        List<String> candidates = healthy;
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size())));
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.read-replicas.health-check-interval-millis:5000}")
+    public void check() {
+        List<String> up = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> {
+            if (isHealthy(name, dataSource)) {
+                up.add(name);
+            }
+        });
+        if (!up.equals(healthy)) {
+            if (up.isEmpty()) {
+                log.warn("No healthy read replica; read-only transactions fall back to the primary");
+            } else {
+                log.info("Healthy read replicas: {} of {}", up, replicas.keySet());
+            }
+        }
+        healthy = List.copyOf(up);
+    }
+
+    @Override
+    public void close() {
+        replicas.values().forEach(dataSource -> {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close read replica pool", e);
+                }
+            }
+        });
+    }
+
+    private boolean isHealthy(String name, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (maxLagSeconds <= 0) {
+                return connection.isValid(timeoutSeconds);
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(timeoutSeconds);
+                try (ResultSet lag = statement.executeQuery(LAG_QUERY)) {
+                    double lagSeconds = lag.next() ? lag.getDouble(1) : 0;
+                    if (lagSeconds > maxLagSeconds) {
+                        log.warn("Read replica '{}' is {}s behind the primary", name, (long) lagSeconds);
+                        return false;
+                    }
+                    return true;
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Read replica '{}' failed its health check: {}", name, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.dopaminelite.dl_file_storage_service.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Target for read-only connections: a healthy replica chosen round-robin, or the primary when no
+ * replica is healthy or the current read must observe a recent write.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private final ReplicaHealthChecker healthChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaHealthChecker healthChecker) {
+        this.healthChecker = healthChecker;
+        Map<Object, Object> targets = new HashMap<>(healthChecker.getReplicas());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (ReadYourWritesTracker.isPrimaryRequired()) {
+            return PRIMARY;
+        }
+        return healthChecker.nextHealthyReplica().orElse(PRIMARY);
+    }
+}
@@ -1,5 +1,6 @@
 package com.dopaminelite.dl_file_storage_service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,5 +17,8 @@ public class BulkFileSignedUrlResponseItem {
     private UUID fileId;
     private String url;
     private OffsetDateTime expiresAt;
+    // Set instead of url/expiresAt when the bulk request runs in partial-success mode and this item failed
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
 }
 
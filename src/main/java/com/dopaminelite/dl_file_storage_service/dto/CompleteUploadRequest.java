@@ -0,0 +1,16 @@
+package com.dopaminelite.dl_file_storage_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompleteUploadRequest {
+    private List<CompletedUploadPart> parts; // multipart uploads only
+}
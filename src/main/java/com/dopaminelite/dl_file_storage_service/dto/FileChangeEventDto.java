@@ -0,0 +1,29 @@
+package com.dopaminelite.dl_file_storage_service.dto;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileChangeType;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileChangeEventDto {
+    // Increasing per event; consumers can use it to drop duplicate deliveries
+    private long eventId;
+    private FileChangeType changeType;
+    private UUID fileId;
+    private FileContextType contextType;
+    private String contextRefId;
+    private UUID createdByUserId;
+    private String originalFileName;
+    private String mimeType;
+    private long sizeBytes;
+    private Instant occurredAt;
+}
@@ -0,0 +1,19 @@
+package com.dopaminelite.dl_file_storage_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileChangeFeedResponse {
+    private List<FileChangeEventDto> items;
+    // Pass as "after" on the next poll; unchanged when no new events were returned
+    private String nextCursor;
+    private boolean hasMore;
+}
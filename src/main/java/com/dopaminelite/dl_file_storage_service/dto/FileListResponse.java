@@ -1,5 +1,6 @@
 package com.dopaminelite.dl_file_storage_service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,6 +14,11 @@ import java.util.List;
 @AllArgsConstructor
 public class FileListResponse {
     private List<StoredFileDto> items;
-    private long total;
+    // Omitted in cursor mode unless includeTotal was requested
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long total;
+    // Token for the next cursor page; absent on the last page and in offset mode
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
 
@@ -0,0 +1,23 @@
+package com.dopaminelite.dl_file_storage_service.dto;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InitiateUploadRequest {
+    private String originalFileName;
+    private String mimeType;
+    private long sizeBytes;
+    private String sha256; // optional, hex; enforced by storage for single-part uploads
+    private UUID createdByUserId;
+    private FileContextType contextType;
+    private String contextRefId;
+}
@@ -0,0 +1,28 @@
+package com.dopaminelite.dl_file_storage_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class InitiateUploadResponse {
+    private UUID uploadId;
+    // Single PUT: send the body to uploadUrl with exactly these headers
+    private String uploadUrl;
+    private Map<String, List<String>> uploadHeaders;
+    // Multipart: PUT each part (partSizeBytes, last one shorter) and report the returned ETags on completion
+    private Long partSizeBytes;
+    private List<UploadPartUrl> parts;
+    private OffsetDateTime expiresAt;
+}
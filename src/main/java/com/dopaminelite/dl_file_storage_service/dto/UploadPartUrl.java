@@ -0,0 +1,15 @@
+package com.dopaminelite.dl_file_storage_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadPartUrl {
+    private int partNumber;
+    private String url;
+}
@@ -0,0 +1,27 @@
+package com.dopaminelite.dl_file_storage_service.dto;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsageResponse {
+    // Either the user or the context (type and ref id) the usage belongs to
+    private UUID createdByUserId;
+    private FileContextType contextType;
+    private String contextRefId;
+    private long fileCount;
+    private long totalBytes;
+    // Null when no quota applies
+    private Long maxFiles;
+    private Long maxBytes;
+    private Instant updatedAt;
+}
@@ -0,0 +1,76 @@
+package com.dopaminelite.dl_file_storage_service.entity;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileChangeType;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Outbox row for a file change, inserted in the transaction that makes the change. The id comes
+ * from a sequence without pooled allocation, so ids follow insert order across instances and
+ * serve as the change feed cursor.
+ */
+@Entity
+@Table(
+        name = "dopaminelite_file_change_events",
+        indexes = {
+                @Index(name = "idx_file_change_events_context", columnList = "context_type, context_ref_id, id")
+        }
+)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileChangeEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "file_change_event_seq")
+    @SequenceGenerator(name = "file_change_event_seq", sequenceName = "dopaminelite_file_change_events_seq", allocationSize = 1)
+    @Column(name = "id", nullable = false, updatable = false)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, updatable = false)
+    private FileChangeType changeType;
+
+    @Column(name = "file_id", nullable = false, updatable = false)
+    private UUID fileId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "context_type", nullable = false, updatable = false)
+    private FileContextType contextType;
+
+    @Column(name = "context_ref_id", updatable = false)
+    private String contextRefId;
+
+    @Column(name = "created_by_user_id", nullable = false, updatable = false)
+    private UUID createdByUserId;
+
+    @Column(name = "original_file_name", nullable = false, updatable = false)
+    private String originalFileName;
+
+    @Column(name = "mime_type", updatable = false)
+    private String mimeType;
+
+    @Column(name = "size_bytes", nullable = false, updatable = false)
+    private long sizeBytes;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private Instant occurredAt;
+
+    // Set by the relay once the event was handed to the sink
+    @Column(name = "published_at")
+    private Instant publishedAt;
+
+    // Relay lease: another relay may claim the unpublished event again once this has passed
+    @Column(name = "claimed_until")
+    private Instant claimedUntil;
+}
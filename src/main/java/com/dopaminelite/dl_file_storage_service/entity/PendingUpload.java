@@ -0,0 +1,83 @@
+package com.dopaminelite.dl_file_storage_service.entity;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A direct-to-storage upload that has been initiated but not yet verified. Kept apart from
+ * {@link StoredFile} so that pending rows never show up in file lookups or listings; completing
+ * the upload turns it into a {@link StoredFile} and removes this row.
+ */
+@Entity
+@Table(
+        name = "dopaminelite_pending_uploads",
+        indexes = {
+                @Index(name = "idx_pending_uploads_expires_at", columnList = "expires_at")
+        }
+)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+public class PendingUpload {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "original_file_name", nullable = false)
+    private String originalFileName;
+
+    @Column(name = "stored_file_name", nullable = false, unique = true)
+    private String storedFileName;
+
+    @Column(name = "mime_type", nullable = false)
+    private String mimeType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    // Client-declared checksum (hex); only copied to the file once storage has confirmed it
+    @Column(name = "sha256")
+    private String sha256;
+
+    @Column(name = "bucket", nullable = false)
+    private String bucket;
+
+    @Column(name = "storage_path", nullable = false)
+    private String storagePath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "context_type", nullable = false)
+    private FileContextType contextType;
+
+    @Column(name = "context_ref_id")
+    private String contextRefId;
+
+    @Column(name = "created_by_user_id", nullable = false)
+    private UUID createdByUserId;
+
+    // Set when the upload uses presigned multipart part URLs
+    @Column(name = "multipart_upload_id")
+    private String multipartUploadId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
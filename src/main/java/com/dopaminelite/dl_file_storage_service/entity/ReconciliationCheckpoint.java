@@ -0,0 +1,41 @@
+package com.dopaminelite.dl_file_storage_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Progress of the storage reconciliation through one key prefix, so that a pass over millions of
+ * objects can span many runs and survive restarts.
+ */
+@Entity
+@Table(name = "dopaminelite_reconciliation_checkpoints")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationCheckpoint {
+
+    @Id
+    @Column(name = "prefix", nullable = false, updatable = false)
+    private String prefix;
+
+    // Last key reconciled in the current pass; null when the next pass starts at the beginning
+    @Column(name = "last_key", length = 1024)
+    private String lastKey;
+
+    @Column(name = "pass_started_at")
+    private Instant passStartedAt;
+
+    @Column(name = "last_completed_at")
+    private Instant lastCompletedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
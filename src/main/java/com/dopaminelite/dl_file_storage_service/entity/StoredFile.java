@@ -18,8 +18,7 @@ import java.util.UUID;
 @Table(
         name = "dopaminelite_stored_files",
         indexes = {
-                @Index(name = "idx_context_type_ref", columnList = "context_type, context_ref_id"),
-                @Index(name = "idx_created_by", columnList = "created_by_user_id")
+                @Index(name = "idx_storage_path", columnList = "storage_path")
         }
 )
 @Getter
@@ -53,7 +52,8 @@ public class StoredFile {
     @Column(name = "bucket", nullable = false)
     private String bucket;
 
-    @Column(name = "storage_path", nullable = false, unique = true)
+    // Not unique: deduplicated files share the storage path of their StoredObject
+    @Column(name = "storage_path", nullable = false)
     private String storagePath;
 
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,53 @@
+package com.dopaminelite.dl_file_storage_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A physical object in storage that may back several {@link StoredFile} rows when content
+ * deduplication is enabled. {@code refCount} is the number of active files pointing at it.
+ */
+@Entity
+@Table(
+        name = "dopaminelite_stored_objects",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_stored_objects_sha256_size", columnNames = {"sha256", "size_bytes"}),
+                @UniqueConstraint(name = "uk_stored_objects_storage_path", columnNames = {"storage_path"})
+        }
+)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredObject {
+
+    @Id
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "bucket", nullable = false)
+    private String bucket;
+
+    @Column(name = "storage_path", nullable = false)
+    private String storagePath;
+
+    @Column(name = "ref_count", nullable = false)
+    private long refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,67 @@
+package com.dopaminelite.dl_file_storage_service.entity;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Active file count and bytes of one user ({@code user:<id>}) or one context
+ * ({@code context:<type>:<refId>}). Rows are only changed through the additive upsert in
+ * {@link com.dopaminelite.dl_file_storage_service.repository.UsageCounterRepository}, in the
+ * transaction that inserts or soft-deletes the files.
+ */
+@Entity
+@Table(
+        name = "dopaminelite_usage_counters",
+        indexes = {
+                @Index(name = "idx_usage_counters_user", columnList = "user_id"),
+                @Index(name = "idx_usage_counters_context", columnList = "context_type, context_ref_id")
+        }
+)
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsageCounter {
+
+    @Id
+    @Column(name = "scope", nullable = false, updatable = false, length = 512)
+    private String scope;
+
+    // Set for user scopes
+    @Column(name = "user_id", updatable = false)
+    private UUID userId;
+
+    // Set for context scopes
+    @Enumerated(EnumType.STRING)
+    @Column(name = "context_type", updatable = false)
+    private FileContextType contextType;
+
+    @Column(name = "context_ref_id", updatable = false)
+    private String contextRefId;
+
+    @Column(name = "file_count", nullable = false)
+    private long fileCount;
+
+    @Column(name = "total_bytes", nullable = false)
+    private long totalBytes;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public static String userScope(UUID userId) {
+        return "user:" + userId;
+    }
+
+    public static String contextScope(FileContextType contextType, String contextRefId) {
+        return "context:" + contextType.name() + ":" + contextRefId;
+    }
+}
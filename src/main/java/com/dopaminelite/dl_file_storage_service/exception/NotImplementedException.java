@@ -0,0 +1,10 @@
+package com.dopaminelite.dl_file_storage_service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// The configured storage provider lacks the capability a request needs
+@ResponseStatus(HttpStatus.NOT_IMPLEMENTED)
+public class NotImplementedException extends RuntimeException {
+    public NotImplementedException(String message) { super(message); }
+}
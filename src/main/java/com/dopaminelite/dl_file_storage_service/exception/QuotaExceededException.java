@@ -0,0 +1,9 @@
+package com.dopaminelite.dl_file_storage_service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class QuotaExceededException extends RuntimeException {
+    public QuotaExceededException(String message) { super(message); }
+}
@@ -0,0 +1,96 @@
+package com.dopaminelite.dl_file_storage_service.job;
+
+import com.dopaminelite.dl_file_storage_service.config.StorageProperties;
+import com.dopaminelite.dl_file_storage_service.entity.PendingUpload;
+import com.dopaminelite.dl_file_storage_service.repository.PendingUploadRepository;
+import com.dopaminelite.dl_file_storage_service.storage.StorageProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Removes direct uploads that were initiated but never completed: once a pending upload has
+ * expired its multipart upload is aborted (or its object deleted) and the row removed. Each row
+ * is claimed by deleting it before storage is touched, so an upload completed concurrently is
+ * never removed from storage.
+ */
+@Component
+@ConditionalOnProperty(prefix = "storage.direct-upload.cleanup", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ExpiredPendingUploadCleanupJob {
+
+    private final PendingUploadRepository pendingUploadRepository;
+    private final StorageProvider storageProvider;
+    private final StorageProperties storageProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Scheduled(initialDelayString = "${storage.direct-upload.cleanup.fixed-delay-millis:900000}",
+            fixedDelayString = "${storage.direct-upload.cleanup.fixed-delay-millis:900000}")
+    public void cleanUp() {
+        StorageProperties.PendingUploadCleanupProperties cleanupProps = storageProperties.getDirectUpload().getCleanup();
+        Instant expiredBefore = Instant.now();
+
+        Instant afterExpiresAt = Instant.EPOCH;
+        UUID afterId = new UUID(0L, 0L);
+        int removed = 0;
+        int failed = 0;
+        for (int batches = 0; batches < cleanupProps.getMaxBatchesPerRun(); batches++) {
+            List<PendingUpload> rows = pendingUploadRepository.findExpiredAfter(
+                    expiredBefore, afterExpiresAt, afterId, Limit.of(cleanupProps.getBatchSize()));
+            if (rows.isEmpty()) {
+                break;
+            }
+            PendingUpload last = rows.get(rows.size() - 1);
+            afterExpiresAt = last.getExpiresAt();
+            afterId = last.getId();
+
+            for (PendingUpload pending : rows) {
+                Integer claimed = transactionTemplate.execute(status -> pendingUploadRepository.deletePending(pending.getId()));
+                if (claimed == null || claimed == 0) {
+                    continue;
+                }
+                if (removeFromStorage(pending)) {
+                    removed++;
+                } else {
+                    failed++;
+                }
+            }
+            if (rows.size() < cleanupProps.getBatchSize()) {
+                break;
+            }
+        }
+
+        meterRegistry.counter("files.pending_uploads.expired", "outcome", "removed").increment(removed);
+        meterRegistry.counter("files.pending_uploads.expired", "outcome", "failed").increment(failed);
+        if (removed > 0 || failed > 0) {
+            log.info("Removed {} expired pending upload(s) ({} could not be removed from storage)", removed + failed, failed);
+        }
+    }
+
+    // Left-over objects are picked up by storage reconciliation as orphans
+    private boolean removeFromStorage(PendingUpload pending) {
+        try {
+            if (pending.getMultipartUploadId() != null) {
+                storageProvider.abortMultipartUpload(pending.getStoragePath(), pending.getMultipartUploadId());
+            } else {
+                storageProvider.delete(pending.getStoragePath());
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to remove object '{}' of expired upload {}", pending.getStoragePath(), pending.getId(), e);
+            return false;
+        }
+    }
+}
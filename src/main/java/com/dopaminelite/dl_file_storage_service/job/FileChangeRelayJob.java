@@ -0,0 +1,125 @@
+package com.dopaminelite.dl_file_storage_service.job;
+
+import com.dopaminelite.dl_file_storage_service.config.StorageProperties;
+import com.dopaminelite.dl_file_storage_service.entity.FileChangeEvent;
+import com.dopaminelite.dl_file_storage_service.mapper.FileMapper;
+import com.dopaminelite.dl_file_storage_service.outbox.FileChangeSink;
+import com.dopaminelite.dl_file_storage_service.repository.FileChangeEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Relays outbox events to the configured {@link FileChangeSink} in id order, batch by batch. A
+ * short transaction claims the batch (locking rows, skipping those other instances are claiming,
+ * and setting a lease in {@code claimed_until}); the sink is then called with no transaction or
+ * connection held, and a second short transaction marks the batch published. A failing sink
+ * releases the claim so the batch is retried on the next run; a relay that dies before marking
+ * leaves the claim to expire after {@code storage.outbox.relay.claim-lease-millis}, when any
+ * instance delivers the batch again. Delivery is therefore at-least-once.
+ * Also prunes events past their retention (published ones only while the relay is enabled).
+ */
+@Component
+@ConditionalOnProperty(prefix = "storage.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class FileChangeRelayJob {
+
+    private static final int PRUNE_BATCH_SIZE = 1000;
+
+    private final FileChangeEventRepository repository;
+    private final FileChangeSink sink;
+    private final StorageProperties storageProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Scheduled(fixedDelayString = "${storage.outbox.relay.fixed-delay-millis:1000}")
+    public void relay() {
+        StorageProperties.OutboxRelayProperties relayProps = storageProperties.getOutbox().getRelay();
+        if (!relayProps.isEnabled()) {
+            return;
+        }
+        for (int batches = 0; batches < relayProps.getMaxBatchesPerRun(); batches++) {
+            int published;
+            try {
+                published = relayBatch(relayProps.getBatchSize(), relayProps.getClaimLeaseMillis());
+            } catch (RuntimeException e) {
+                log.warn("Publishing file change events failed; retrying on the next run", e);
+                meterRegistry.counter("files.outbox.relay.failures").increment();
+                return;
+            }
+            if (published < relayProps.getBatchSize()) {
+                return;
+            }
+        }
+    }
+
+    // Returns the number of events published
+    private int relayBatch(int batchSize, long claimLeaseMillis) {
+        List<FileChangeEvent> events = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<FileChangeEvent> claimable = repository.lockClaimable(now, batchSize);
+            if (!claimable.isEmpty()) {
+                repository.claim(ids(claimable), now.plusMillis(claimLeaseMillis));
+            }
+            return claimable;
+        });
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = ids(events);
+
+        try {
+            sink.publish(events.stream().map(FileMapper::toDto).toList());
+        } catch (Exception e) {
+            releaseClaim(ids);
+            throw e instanceof RuntimeException runtime
+                    ? runtime
+                    : new IllegalStateException("File change sink failed: " + e.getMessage(), e);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> repository.markPublished(ids, Instant.now()));
+        meterRegistry.counter("files.outbox.relay.published").increment(events.size());
+        log.debug("Relayed {} file change event(s)", events.size());
+        return events.size();
+    }
+
+    // Best effort: if this fails too, the lease runs out and the batch is claimed again later
+    private void releaseClaim(List<Long> ids) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.releaseClaim(ids));
+        } catch (RuntimeException e) {
+            log.warn("Releasing the claim on {} file change event(s) failed", ids.size(), e);
+        }
+    }
+
+    private static List<Long> ids(List<FileChangeEvent> events) {
+        return events.stream().map(FileChangeEvent::getId).toList();
+    }
+
+    @Scheduled(initialDelayString = "${storage.outbox.prune-fixed-delay-millis:3600000}",
+            fixedDelayString = "${storage.outbox.prune-fixed-delay-millis:3600000}")
+    public void prune() {
+        StorageProperties.OutboxProperties outboxProps = storageProperties.getOutbox();
+        Instant occurredBefore = Instant.now().minus(outboxProps.getRetentionDays(), ChronoUnit.DAYS);
+        boolean includeUnpublished = !outboxProps.getRelay().isEnabled();
+        int pruned = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                    repository.deleteOccurredBefore(occurredBefore, includeUnpublished, PRUNE_BATCH_SIZE));
+            pruned += deleted;
+        } while (deleted == PRUNE_BATCH_SIZE);
+        if (pruned > 0) {
+            log.info("Pruned {} file change event(s) older than {}", pruned, occurredBefore);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.dopaminelite.dl_file_storage_service.job;
+
+import com.dopaminelite.dl_file_storage_service.config.StorageProperties;
+import com.dopaminelite.dl_file_storage_service.entity.StoredFile;
+import com.dopaminelite.dl_file_storage_service.repository.StoredFileRepository;
+import com.dopaminelite.dl_file_storage_service.repository.StoredObjectRepository;
+import com.dopaminelite.dl_file_storage_service.storage.StorageProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reclaims soft-deleted files once their retention period has passed: walks the rows in
+ * (updatedAt, id) keyset order, deletes their objects with batched storage calls, then
+ * hard-deletes the rows. Objects still referenced by active (deduplicated) files are kept.
+ */
+@Component
+@ConditionalOnProperty(prefix = "storage.purge", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class SoftDeletedFilePurgeJob {
+
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final StoredFileRepository repository;
+    private final StoredObjectRepository storedObjectRepository;
+    private final StorageProvider storageProvider;
+    private final StorageProperties storageProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Scheduled(initialDelayString = "${storage.purge.fixed-delay-millis:3600000}",
+            fixedDelayString = "${storage.purge.fixed-delay-millis:3600000}")
+    public void purge() {
+        StorageProperties.PurgeProperties purgeProps = storageProperties.getPurge();
+        Instant deletedBefore = Instant.now().minus(purgeProps.getRetentionDays(), ChronoUnit.DAYS);
+        int batchSize = Math.min(purgeProps.getBatchSize(), MAX_BATCH_SIZE);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Instant afterUpdatedAt = Instant.EPOCH;
+        UUID afterId = new UUID(0L, 0L);
+        int purgedRows = 0;
+        int batches = 0;
+        while (batches < purgeProps.getMaxBatchesPerRun()) {
+            List<StoredFile> rows = repository.findPurgeableAfter(deletedBefore, afterUpdatedAt, afterId, Limit.of(batchSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            StoredFile last = rows.get(rows.size() - 1);
+            afterUpdatedAt = last.getUpdatedAt();
+            afterId = last.getId();
+
+            purgedRows += purgeBatch(rows);
+            batches++;
+            if (rows.size() < batchSize || !pause(purgeProps.getPauseBetweenBatchesMillis())) {
+                break;
+            }
+        }
+        sample.stop(meterRegistry.timer("files.purge.run"));
+        if (purgedRows > 0) {
+            log.info("Purged {} soft-deleted file(s) deleted before {} in {} batch(es)", purgedRows, deletedBefore, batches);
+        }
+    }
+
+    /**
+     * Deletes the objects and rows of one batch. Rows whose object could not be deleted stay for
+     * the next run. Returns the number of rows removed.
+     */
+    private int purgeBatch(List<StoredFile> rows) {
+        Set<String> storagePaths = new LinkedHashSet<>();
+        rows.forEach(row -> storagePaths.add(row.getStoragePath()));
+
+        transactionTemplate.executeWithoutResult(status -> storedObjectRepository.deleteUnreferenced(storagePaths));
+        Set<String> retained = new HashSet<>(repository.findActiveStoragePaths(storagePaths));
+        retained.addAll(storedObjectRepository.findStoragePaths(storagePaths));
+
+        List<String> toDelete = storagePaths.stream().filter(path -> !retained.contains(path)).toList();
+        Set<String> failed = toDelete.isEmpty() ? Set.of() : storageProvider.deleteAll(toDelete);
+        if (!failed.isEmpty()) {
+            log.warn("Failed to delete {} of {} object(s); their rows are kept for the next purge run", failed.size(), toDelete.size());
+        }
+
+        List<UUID> ids = rows.stream()
+                .filter(row -> !failed.contains(row.getStoragePath()))
+                .map(StoredFile::getId)
+                .toList();
+        if (!ids.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> repository.deleteAllByIdInBatch(ids));
+        }
+
+        meterRegistry.counter("files.purge.objects", "outcome", "deleted").increment(toDelete.size() - failed.size());
+        meterRegistry.counter("files.purge.objects", "outcome", "failed").increment(failed.size());
+        meterRegistry.counter("files.purge.objects", "outcome", "retained").increment(storagePaths.size() - toDelete.size());
+        meterRegistry.counter("files.purge.rows").increment(ids.size());
+        return ids.size();
+    }
+
+    // Returns false if the run should stop because the thread was interrupted
+    private static boolean pause(long millis) {
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
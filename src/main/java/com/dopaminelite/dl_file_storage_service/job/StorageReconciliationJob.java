@@ -0,0 +1,169 @@
+package com.dopaminelite.dl_file_storage_service.job;
+
+import com.dopaminelite.dl_file_storage_service.config.StorageProperties;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.constant.ReconciliationMode;
+import com.dopaminelite.dl_file_storage_service.entity.ReconciliationCheckpoint;
+import com.dopaminelite.dl_file_storage_service.repository.PendingUploadRepository;
+import com.dopaminelite.dl_file_storage_service.repository.ReconciliationCheckpointRepository;
+import com.dopaminelite.dl_file_storage_service.repository.StoredFileRepository;
+import com.dopaminelite.dl_file_storage_service.repository.StoredObjectRepository;
+import com.dopaminelite.dl_file_storage_service.storage.ListedObject;
+import com.dopaminelite.dl_file_storage_service.storage.ObjectKeyLayout;
+import com.dopaminelite.dl_file_storage_service.storage.ObjectListing;
+import com.dopaminelite.dl_file_storage_service.storage.StorageProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Incrementally cross-checks storage against the metadata tables, one listing page at a time:
+ * <ul>
+ *     <li>objects no file, pending upload or stored object refers to are reported (or deleted);</li>
+ *     <li>active files whose object is missing from the listed key range are reported.</li>
+ * </ul>
+ * Each context type's key prefix (in every bucket of the key layout) is walked in key order and
+ * the position is checkpointed after every page, so memory stays bounded by the page size and a
+ * pass can span many runs.
+ */
+@Component
+@ConditionalOnProperty(prefix = "storage.reconciliation", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class StorageReconciliationJob {
+
+    // Missing-object rows reported per page at most
+    private static final int MAX_MISSING_ROWS_PER_PAGE = 10_000;
+    private static final int LOGGED_PATHS = 10;
+
+    private final StoredFileRepository repository;
+    private final PendingUploadRepository pendingUploadRepository;
+    private final StoredObjectRepository storedObjectRepository;
+    private final ReconciliationCheckpointRepository checkpointRepository;
+    private final StorageProvider storageProvider;
+    private final ObjectKeyLayout objectKeyLayout;
+    private final StorageProperties storageProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Scheduled(initialDelayString = "${storage.reconciliation.fixed-delay-millis:21600000}",
+            fixedDelayString = "${storage.reconciliation.fixed-delay-millis:21600000}")
+    public void reconcile() {
+        if (!storageProvider.supportsListing()) {
+            log.warn("Storage reconciliation skipped: the storage provider does not support listing");
+            return;
+        }
+        int pagesLeft = storageProperties.getReconciliation().getMaxPagesPerRun();
+        for (FileContextType contextType : FileContextType.values()) {
+            for (String prefix : objectKeyLayout.listingPrefixes(contextType)) {
+                if (pagesLeft <= 0) {
+                    return;
+                }
+                pagesLeft -= reconcilePrefix(prefix, pagesLeft);
+            }
+        }
+    }
+
+    // Returns the number of pages listed
+    private int reconcilePrefix(String prefix, int maxPages) {
+        StorageProperties.ReconciliationProperties props = storageProperties.getReconciliation();
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findById(prefix)
+                .orElseGet(() -> ReconciliationCheckpoint.builder().prefix(prefix).build());
+        if (checkpoint.getPassStartedAt() == null) {
+            checkpoint.setPassStartedAt(Instant.now());
+        }
+
+        int pages = 0;
+        while (pages < maxPages) {
+            String startAfter = checkpoint.getLastKey();
+            ObjectListing listing = storageProvider.listObjects(prefix, startAfter, props.getPageSize());
+            pages++;
+
+            List<ListedObject> objects = listing.objects();
+            boolean more = listing.truncated() && !objects.isEmpty();
+            String lastKey = more ? objects.get(objects.size() - 1).storagePath() : null;
+            // The prefix sorts before all its keys; prefixEnd after all of them
+            reconcilePage(prefix, objects,
+                    startAfter != null ? startAfter : prefix,
+                    lastKey != null ? lastKey : prefixEnd(prefix));
+
+            checkpoint.setLastKey(lastKey);
+            checkpoint.setUpdatedAt(Instant.now());
+            if (!more) {
+                checkpoint.setLastCompletedAt(checkpoint.getUpdatedAt());
+                log.info("Reconciliation pass over '{}' started at {} completed", prefix, checkpoint.getPassStartedAt());
+                checkpoint.setPassStartedAt(null);
+                checkpointRepository.save(checkpoint);
+                break;
+            }
+            checkpointRepository.save(checkpoint);
+        }
+        return pages;
+    }
+
+    private void reconcilePage(String prefix, List<ListedObject> objects, String afterKey, String upToKey) {
+        StorageProperties.ReconciliationProperties props = storageProperties.getReconciliation();
+        Instant graceCutoff = Instant.now().minus(props.getGracePeriodHours(), ChronoUnit.HOURS);
+        meterRegistry.counter("files.reconcile.scanned", "prefix", prefix).increment(objects.size());
+
+        Set<String> listed = new HashSet<>(objects.size() * 2);
+        objects.forEach(object -> listed.add(object.storagePath()));
+
+        if (!listed.isEmpty()) {
+            Set<String> known = new HashSet<>(repository.findStoragePaths(listed));
+            // Expired pending uploads can no longer be completed, so their objects count as orphans
+            known.addAll(pendingUploadRepository.findUnexpiredStoragePaths(listed, Instant.now()));
+            known.addAll(storedObjectRepository.findStoragePaths(listed));
+            List<String> orphans = objects.stream()
+                    .filter(object -> !known.contains(object.storagePath()) && object.lastModified().isBefore(graceCutoff))
+                    .map(ListedObject::storagePath)
+                    .toList();
+            if (!orphans.isEmpty()) {
+                handleOrphans(prefix, orphans, props.getMode());
+            }
+        }
+
+        List<String> missing = repository.findActiveStoragePathsInRange(afterKey, upToKey, graceCutoff, MAX_MISSING_ROWS_PER_PAGE)
+                .stream()
+                .filter(storagePath -> !listed.contains(storagePath))
+                .toList();
+        if (!missing.isEmpty()) {
+            log.warn("Found {} active file storage path(s) under '{}' with no object in storage, e.g. {}",
+                    missing.size(), prefix, sample(missing));
+            meterRegistry.counter("files.reconcile.missing_objects", "prefix", prefix).increment(missing.size());
+        }
+    }
+
+    private void handleOrphans(String prefix, List<String> orphans, ReconciliationMode mode) {
+        if (mode == ReconciliationMode.DELETE) {
+            Set<String> failed = storageProvider.deleteAll(orphans);
+            log.warn("Deleted {} orphaned object(s) under '{}' ({} failed), e.g. {}",
+                    orphans.size() - failed.size(), prefix, failed.size(), sample(orphans));
+            meterRegistry.counter("files.reconcile.orphaned_objects", "prefix", prefix, "action", "deleted")
+                    .increment(orphans.size() - failed.size());
+            meterRegistry.counter("files.reconcile.orphaned_objects", "prefix", prefix, "action", "failed")
+                    .increment(failed.size());
+        } else {
+            log.warn("Found {} orphaned object(s) under '{}', e.g. {}", orphans.size(), prefix, sample(orphans));
+            meterRegistry.counter("files.reconcile.orphaned_objects", "prefix", prefix, "action", "reported")
+                    .increment(orphans.size());
+        }
+    }
+
+    // "payment_submission/" -> "payment_submission0": the next byte after '/' bounds the prefix's keys
+    private static String prefixEnd(String prefix) {
+        return prefix.substring(0, prefix.length() - 1) + (char) (prefix.charAt(prefix.length() - 1) + 1);
+    }
+
+    private static List<String> sample(List<String> paths) {
+        return paths.subList(0, Math.min(LOGGED_PATHS, paths.size()));
+    }
+}
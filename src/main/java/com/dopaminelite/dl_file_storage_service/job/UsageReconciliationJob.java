@@ -0,0 +1,182 @@
+package com.dopaminelite.dl_file_storage_service.job;
+
+import com.dopaminelite.dl_file_storage_service.config.StorageProperties;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.entity.UsageCounter;
+import com.dopaminelite.dl_file_storage_service.repository.UsageCounterRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Corrects drift of the usage counters (e.g. from files that predate them or concurrent deletes
+ * of one file) by recounting active files, a batch of users or contexts at a time in key order.
+ * <p>
+ * Each batch reads the actual usage and the counters in one snapshot and adds the difference to
+ * the counters, instead of overwriting them: uploads and deletes that commit after the snapshot
+ * change both sides alike, so their increments survive the correction.
+ */
+@Component
+@ConditionalOnProperty(prefix = "storage.usage", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class UsageReconciliationJob {
+
+    // Sorts before every real user id; the nil UUID is never a user
+    private static final UUID FIRST_USER_ID = new UUID(0L, 0L);
+
+    private final UsageCounterRepository repository;
+    private final StorageProperties storageProperties;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTemplate;
+
+    public UsageReconciliationJob(UsageCounterRepository repository,
+                                  StorageProperties storageProperties,
+                                  MeterRegistry meterRegistry,
+                                  PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.storageProperties = storageProperties;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+    }
+
+    @Scheduled(initialDelayString = "${storage.usage.reconciliation.fixed-delay-millis:21600000}",
+            fixedDelayString = "${storage.usage.reconciliation.fixed-delay-millis:21600000}")
+    public void reconcile() {
+        StorageProperties.UsageReconciliationProperties props = storageProperties.getUsage().getReconciliation();
+        if (!props.isEnabled()) {
+            return;
+        }
+        int users = reconcileUsers(props.getBatchSize());
+        int contexts = reconcileContexts(props.getBatchSize());
+        meterRegistry.counter("files.usage.reconcile.corrected", "scope", "user").increment(users);
+        meterRegistry.counter("files.usage.reconcile.corrected", "scope", "context").increment(contexts);
+        if (users > 0 || contexts > 0) {
+            log.info("Corrected usage counters of {} user(s) and {} context(s)", users, contexts);
+        }
+    }
+
+    // Returns the number of corrected counters
+    private int reconcileUsers(int batchSize) {
+        int corrected = 0;
+        UUID after = FIRST_USER_ID;
+        while (true) {
+            UUID from = after;
+            UserBatch batch = snapshotTemplate.execute(status -> {
+                List<UsageCounterRepository.UserUsage> actual = repository.countUsersAfter(from, batchSize);
+                // A short batch is the last one: every remaining counter belongs to it
+                boolean last = actual.size() < batchSize;
+                UUID upTo = last ? from : actual.get(actual.size() - 1).getUserId();
+                Map<String, Correction> corrections = new TreeMap<>();
+                for (UsageCounterRepository.UserUsage usage : actual) {
+                    merge(corrections, UsageCounter.userScope(usage.getUserId()),
+                            new Correction(usage.getUserId(), null, null, usage.getFileCount(), usage.getTotalBytes()));
+                }
+                for (UsageCounterRepository.UserUsage counter : repository.findUserCounters(from, upTo, last)) {
+                    merge(corrections, UsageCounter.userScope(counter.getUserId()),
+                            new Correction(counter.getUserId(), null, null, -counter.getFileCount(), -counter.getTotalBytes()));
+                }
+                return new UserBatch(corrections, last, upTo);
+            });
+            corrected += apply(batch.corrections());
+            if (batch.last()) {
+                return corrected;
+            }
+            after = batch.upTo();
+        }
+    }
+
+    private int reconcileContexts(int batchSize) {
+        int corrected = 0;
+        String afterType = "";
+        String afterRefId = "";
+        while (true) {
+            String fromType = afterType;
+            String fromRefId = afterRefId;
+            ContextBatch batch = snapshotTemplate.execute(status -> {
+                List<UsageCounterRepository.ContextUsage> actual = repository.countContextsAfter(fromType, fromRefId, batchSize);
+                boolean last = actual.size() < batchSize;
+                UsageCounterRepository.ContextUsage lastRow = last ? null : actual.get(actual.size() - 1);
+                String upToType = lastRow != null ? lastRow.getContextType() : fromType;
+                String upToRefId = lastRow != null ? lastRow.getContextRefId() : fromRefId;
+                Map<String, Correction> corrections = new TreeMap<>();
+                for (UsageCounterRepository.ContextUsage usage : actual) {
+                    merge(corrections, contextScope(usage),
+                            new Correction(null, usage.getContextType(), usage.getContextRefId(),
+                                    usage.getFileCount(), usage.getTotalBytes()));
+                }
+                for (UsageCounterRepository.ContextUsage counter
+                        : repository.findContextCounters(fromType, fromRefId, upToType, upToRefId, last)) {
+                    merge(corrections, contextScope(counter),
+                            new Correction(null, counter.getContextType(), counter.getContextRefId(),
+                                    -counter.getFileCount(), -counter.getTotalBytes()));
+                }
+                return new ContextBatch(corrections, last, upToType, upToRefId);
+            });
+            corrected += apply(batch.corrections());
+            if (batch.last()) {
+                return corrected;
+            }
+            afterType = batch.upToType();
+            afterRefId = batch.upToRefId();
+        }
+    }
+
+    private static String contextScope(UsageCounterRepository.ContextUsage usage) {
+        return UsageCounter.contextScope(FileContextType.valueOf(usage.getContextType()), usage.getContextRefId());
+    }
+
+    private static void merge(Map<String, Correction> corrections, String scope, Correction correction) {
+        corrections.merge(scope, correction, Correction::plus);
+    }
+
+    // Adds the non-zero differences in scope order, like regular counter updates
+    private int apply(Map<String, Correction> corrections) {
+        Integer applied = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            int count = 0;
+            for (Map.Entry<String, Correction> entry : corrections.entrySet()) {
+                Correction correction = entry.getValue();
+                if (correction.files() == 0 && correction.bytes() == 0) {
+                    continue;
+                }
+                if (correction.userId() != null) {
+                    repository.addUserUsage(entry.getKey(), correction.userId(), correction.files(), correction.bytes(), now);
+                } else {
+                    repository.addContextUsage(entry.getKey(), correction.contextType(), correction.contextRefId(),
+                            correction.files(), correction.bytes(), now);
+                }
+                log.debug("Corrected usage of {} by {} file(s), {} bytes", entry.getKey(), correction.files(), correction.bytes());
+                count++;
+            }
+            return count;
+        });
+        return applied != null ? applied : 0;
+    }
+
+    private record Correction(UUID userId, String contextType, String contextRefId, long files, long bytes) {
+        Correction plus(Correction other) {
+            return new Correction(userId, contextType, contextRefId, files + other.files, bytes + other.bytes);
+        }
+    }
+
+    private record UserBatch(Map<String, Correction> corrections, boolean last, UUID upTo) {
+    }
+
+    private record ContextBatch(Map<String, Correction> corrections, boolean last, String upToType, String upToRefId) {
+    }
+}
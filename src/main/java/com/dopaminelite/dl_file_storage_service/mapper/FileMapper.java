@@ -1,6 +1,8 @@
 package com.dopaminelite.dl_file_storage_service.mapper;
 
+import com.dopaminelite.dl_file_storage_service.dto.FileChangeEventDto;
 import com.dopaminelite.dl_file_storage_service.dto.StoredFileDto;
+import com.dopaminelite.dl_file_storage_service.entity.FileChangeEvent;
 import com.dopaminelite.dl_file_storage_service.entity.StoredFile;
 
 public class FileMapper {
@@ -24,5 +26,20 @@ public class FileMapper {
                 .isDeleted(entity.isDeleted())
                 .build();
     }
-}
 
+    public static FileChangeEventDto toDto(FileChangeEvent event) {
+        if (event == null) return null;
+        return FileChangeEventDto.builder()
+                .eventId(event.getId())
+                .changeType(event.getChangeType())
+                .fileId(event.getFileId())
+                .contextType(event.getContextType())
+                .contextRefId(event.getContextRefId())
+                .createdByUserId(event.getCreatedByUserId())
+                .originalFileName(event.getOriginalFileName())
+                .mimeType(event.getMimeType())
+                .sizeBytes(event.getSizeBytes())
+                .occurredAt(event.getOccurredAt())
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.dopaminelite.dl_file_storage_service.outbox;
+
+import com.dopaminelite.dl_file_storage_service.config.StorageProperties;
+import com.dopaminelite.dl_file_storage_service.constant.FileChangeType;
+import com.dopaminelite.dl_file_storage_service.entity.FileChangeEvent;
+import com.dopaminelite.dl_file_storage_service.entity.StoredFile;
+import com.dopaminelite.dl_file_storage_service.repository.FileChangeEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Writes change events for file rows. Callers invoke it inside the transaction that inserts or
+ * soft-deletes the rows, so an event exists exactly when its change was committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class FileChangeOutbox {
+
+    private final FileChangeEventRepository repository;
+    private final StorageProperties storageProperties;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(List<StoredFile> files) {
+        record(files, FileChangeType.FILE_CREATED);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(StoredFile file) {
+        record(List.of(file), FileChangeType.FILE_DELETED);
+    }
+
+    private void record(List<StoredFile> files, FileChangeType changeType) {
+        if (!storageProperties.getOutbox().isEnabled()) {
+            return;
+        }
+        Instant now = Instant.now();
+        repository.saveAll(files.stream()
+                .map(file -> FileChangeEvent.builder()
+                        .changeType(changeType)
+                        .fileId(file.getId())
+                        .contextType(file.getContextType())
+                        .contextRefId(file.getContextRefId())
+                        .createdByUserId(file.getCreatedByUserId())
+                        .originalFileName(file.getOriginalFileName())
+                        .mimeType(file.getMimeType())
+                        .sizeBytes(file.getSizeBytes())
+                        .occurredAt(now)
+                        .build())
+                .toList());
+    }
+}
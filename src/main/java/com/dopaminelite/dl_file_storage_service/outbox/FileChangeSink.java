@@ -0,0 +1,14 @@
+package com.dopaminelite.dl_file_storage_service.outbox;
+
+import com.dopaminelite.dl_file_storage_service.dto.FileChangeEventDto;
+
+import java.util.List;
+
+/**
+ * Destination the outbox relay publishes change events to. Delivery is at-least-once: a batch is
+ * marked published only after {@link #publish} returns, and is retried when it throws.
+ */
+public interface FileChangeSink {
+
+    void publish(List<FileChangeEventDto> events) throws Exception;
+}
@@ -0,0 +1,25 @@
+package com.dopaminelite.dl_file_storage_service.outbox;
+
+import com.dopaminelite.dl_file_storage_service.dto.FileChangeEventDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+/**
+ * Publishes each event as a Spring application event, for {@code @EventListener}s in this
+ * application and as a local stand-in for the webhook in tests.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class InProcessFileChangeSink implements FileChangeSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(List<FileChangeEventDto> events) {
+        events.forEach(eventPublisher::publishEvent);
+        log.debug("Published {} file change event(s) in process", events.size());
+    }
+}
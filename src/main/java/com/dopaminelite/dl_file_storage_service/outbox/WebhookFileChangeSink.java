@@ -0,0 +1,60 @@
+package com.dopaminelite.dl_file_storage_service.outbox;
+
+import com.dopaminelite.dl_file_storage_service.dto.FileChangeEventDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * POSTs each batch as {@code {"events": [...]}} to a webhook URL. With a secret configured the
+ * body is signed with HMAC-SHA256 in the {@code X-Signature-SHA256} header (hex) so receivers can
+ * verify the sender. Any non-2xx response fails the batch, which is then retried.
+ */
+@Slf4j
+public class WebhookFileChangeSink implements FileChangeSink {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    static final String SIGNATURE_HEADER = "X-Signature-SHA256";
+
+    private final RestClient restClient;
+    private final String url;
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec signingKey;
+
+    public WebhookFileChangeSink(RestClient restClient, String url, ObjectMapper objectMapper, String secret) {
+        this.restClient = restClient;
+        this.url = url;
+        this.objectMapper = objectMapper;
+        this.signingKey = secret != null && !secret.isEmpty()
+                ? new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM)
+                : null;
+        log.info("File change webhook sink posting to {} (signed: {})", url, signingKey != null);
+    }
+
+    @Override
+    public void publish(List<FileChangeEventDto> events) throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("events", events));
+        RestClient.RequestBodySpec request = restClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (signingKey != null) {
+            request.header(SIGNATURE_HEADER, sign(body));
+        }
+        request.body(body).retrieve().toBodilessEntity();
+        log.debug("Posted {} file change event(s) to {}", events.size(), url);
+    }
+
+    private String sign(byte[] body) throws Exception {
+        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+        mac.init(signingKey);
+        return HexFormat.of().formatHex(mac.doFinal(body));
+    }
+}
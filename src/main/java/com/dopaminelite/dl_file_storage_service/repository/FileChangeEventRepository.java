@@ -0,0 +1,65 @@
+package com.dopaminelite.dl_file_storage_service.repository;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.entity.FileChangeEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface FileChangeEventRepository extends JpaRepository<FileChangeEvent, Long> {
+
+    // Change feed: events after the cursor id that are old enough to have settled
+
+    List<FileChangeEvent> findByIdGreaterThanAndOccurredAtBeforeOrderByIdAsc(
+            long afterId, Instant occurredBefore, Limit limit);
+
+    List<FileChangeEvent> findByContextTypeAndIdGreaterThanAndOccurredAtBeforeOrderByIdAsc(
+            FileContextType contextType, long afterId, Instant occurredBefore, Limit limit);
+
+    List<FileChangeEvent> findByContextTypeAndContextRefIdAndIdGreaterThanAndOccurredAtBeforeOrderByIdAsc(
+            FileContextType contextType, String contextRefId, long afterId, Instant occurredBefore, Limit limit);
+
+    /**
+     * Locks the oldest unpublished events that no relay holds a lease on; rows another instance is
+     * claiming right now are skipped, so instances claim disjoint batches.
+     */
+    @Query(value = """
+            select * from dopaminelite_file_change_events
+            where published_at is null and (claimed_until is null or claimed_until < :now)
+            order by id
+            limit :batchSize
+            for update skip locked
+            """, nativeQuery = true)
+    List<FileChangeEvent> lockClaimable(@Param("now") Instant now, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("update FileChangeEvent e set e.claimedUntil = :claimedUntil where e.id in :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimedUntil") Instant claimedUntil);
+
+    @Modifying
+    @Query("update FileChangeEvent e set e.claimedUntil = null where e.id in :ids and e.publishedAt is null")
+    int releaseClaim(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update FileChangeEvent e set e.publishedAt = :publishedAt, e.claimedUntil = null where e.id in :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") Instant publishedAt);
+
+    // Unpublished events are only pruned when no relay will ever publish them
+    @Modifying
+    @Query(value = """
+            delete from dopaminelite_file_change_events
+            where id in (select id from dopaminelite_file_change_events
+                         where occurred_at < :occurredBefore and (published_at is not null or :includeUnpublished)
+                         order by id
+                         limit :batchSize)
+            """, nativeQuery = true)
+    int deleteOccurredBefore(@Param("occurredBefore") Instant occurredBefore,
+                             @Param("includeUnpublished") boolean includeUnpublished,
+                             @Param("batchSize") int batchSize);
+}
@@ -0,0 +1,41 @@
+package com.dopaminelite.dl_file_storage_service.repository;
+
+import com.dopaminelite.dl_file_storage_service.entity.PendingUpload;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public interface PendingUploadRepository extends JpaRepository<PendingUpload, UUID> {
+
+    /**
+     * Deletes the pending upload, returning 0 if it was already removed (e.g. completed concurrently).
+     */
+    @Modifying
+    @Query("delete from PendingUpload p where p.id = :id")
+    int deletePending(@Param("id") UUID id);
+
+    // Reconciliation: objects of uploads that can still be completed
+    @Query("select p.storagePath from PendingUpload p where p.storagePath in :storagePaths and p.expiresAt > :now")
+    Set<String> findUnexpiredStoragePaths(@Param("storagePaths") Collection<String> storagePaths, @Param("now") Instant now);
+
+    // Cleanup: expired uploads in (expiresAt, id) keyset order, backed by idx_pending_uploads_expires_at
+    @Query("""
+            select p from PendingUpload p
+            where p.expiresAt < :expiredBefore
+              and (p.expiresAt > :afterExpiresAt or (p.expiresAt = :afterExpiresAt and p.id > :afterId))
+            order by p.expiresAt asc, p.id asc
+            """)
+    List<PendingUpload> findExpiredAfter(
+            @Param("expiredBefore") Instant expiredBefore,
+            @Param("afterExpiresAt") Instant afterExpiresAt,
+            @Param("afterId") UUID afterId,
+            Limit limit);
+}
@@ -0,0 +1,7 @@
+package com.dopaminelite.dl_file_storage_service.repository;
+
+import com.dopaminelite.dl_file_storage_service.entity.ReconciliationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReconciliationCheckpointRepository extends JpaRepository<ReconciliationCheckpoint, String> {
+}
@@ -0,0 +1,12 @@
+package com.dopaminelite.dl_file_storage_service.repository;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+
+import java.util.UUID;
+
+/**
+ * Optional filters of a file listing; {@code null} components are not filtered on. Only active
+ * (not soft-deleted) files are ever listed.
+ */
+public record StoredFileFilter(UUID createdByUserId, FileContextType contextType, String contextRefId) {
+}
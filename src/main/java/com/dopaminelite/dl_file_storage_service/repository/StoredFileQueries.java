@@ -0,0 +1,27 @@
+package com.dopaminelite.dl_file_storage_service.repository;
+
+import com.dopaminelite.dl_file_storage_service.dto.StoredFileDto;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Listing queries built from a {@link StoredFileFilter} with any combination of filters. Rows are
+ * ordered by (createdAt, id) in the given direction and selected straight into
+ * {@link StoredFileDto}s, bypassing the persistence context.
+ */
+public interface StoredFileQueries {
+
+    List<StoredFileDto> findFilesPage(StoredFileFilter filter, Sort.Direction direction, long offset, int limit);
+
+    /**
+     * Up to {@code limit} files strictly after the (afterCreatedAt, afterId) position in listing
+     * order, or from the start when {@code afterCreatedAt} is {@code null}.
+     */
+    List<StoredFileDto> findFilesAfter(StoredFileFilter filter, Sort.Direction direction,
+                                       Instant afterCreatedAt, UUID afterId, int limit);
+
+    long countFiles(StoredFileFilter filter);
+}
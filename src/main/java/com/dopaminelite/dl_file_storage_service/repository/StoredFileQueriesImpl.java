@@ -0,0 +1,108 @@
+package com.dopaminelite.dl_file_storage_service.repository;
+
+import com.dopaminelite.dl_file_storage_service.dto.StoredFileDto;
+import com.dopaminelite.dl_file_storage_service.entity.StoredFile;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Criteria implementation of {@link StoredFileQueries}. Every filter combination is served by
+ * one of the partial indexes on active rows that
+ * {@link com.dopaminelite.dl_file_storage_service.datasource.ConcurrentIndexMigrator} builds at
+ * startup ({@code idx_stored_files_active_*}).
+ */
+@RequiredArgsConstructor
+public class StoredFileQueriesImpl implements StoredFileQueries {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<StoredFileDto> findFilesPage(StoredFileFilter filter, Sort.Direction direction, long offset, int limit) {
+        return entityManager.createQuery(selectFiles(filter, direction, null, null))
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<StoredFileDto> findFilesAfter(StoredFileFilter filter, Sort.Direction direction,
+                                              Instant afterCreatedAt, UUID afterId, int limit) {
+        return entityManager.createQuery(selectFiles(filter, direction, afterCreatedAt, afterId))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long countFiles(StoredFileFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<StoredFile> file = query.from(StoredFile.class);
+        query.select(cb.count(file)).where(filterPredicates(cb, file, filter).toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private CriteriaQuery<StoredFileDto> selectFiles(StoredFileFilter filter, Sort.Direction direction,
+                                                     Instant afterCreatedAt, UUID afterId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<StoredFileDto> query = cb.createQuery(StoredFileDto.class);
+        Root<StoredFile> file = query.from(StoredFile.class);
+        Path<Instant> createdAt = file.get("createdAt");
+        Path<UUID> id = file.get("id");
+
+        List<Predicate> predicates = filterPredicates(cb, file, filter);
+        if (afterCreatedAt != null) {
+            predicates.add(direction.isAscending()
+                    ? cb.or(cb.greaterThan(createdAt, afterCreatedAt),
+                            cb.and(cb.equal(createdAt, afterCreatedAt), cb.greaterThan(id, afterId)))
+                    : cb.or(cb.lessThan(createdAt, afterCreatedAt),
+                            cb.and(cb.equal(createdAt, afterCreatedAt), cb.lessThan(id, afterId))));
+        }
+
+        // Argument order matches StoredFileDto's all-args constructor
+        return query.select(cb.construct(StoredFileDto.class,
+                        id,
+                        file.get("originalFileName"),
+                        file.get("storedFileName"),
+                        file.get("mimeType"),
+                        file.get("sizeBytes"),
+                        file.get("sha256"),
+                        file.get("bucket"),
+                        file.get("storagePath"),
+                        file.get("contextType"),
+                        file.get("contextRefId"),
+                        file.get("createdByUserId"),
+                        createdAt,
+                        file.get("updatedAt"),
+                        file.get("isDeleted")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(direction.isAscending()
+                        ? List.of(cb.asc(createdAt), cb.asc(id))
+                        : List.of(cb.desc(createdAt), cb.desc(id)));
+    }
+
+    private static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<StoredFile> file, StoredFileFilter filter) {
+        List<Predicate> predicates = new ArrayList<>(4);
+        predicates.add(cb.isFalse(file.get("isDeleted")));
+        if (filter.createdByUserId() != null) {
+            predicates.add(cb.equal(file.get("createdByUserId"), filter.createdByUserId()));
+        }
+        if (filter.contextType() != null) {
+            predicates.add(cb.equal(file.get("contextType"), filter.contextType()));
+        }
+        if (filter.contextRefId() != null) {
+            predicates.add(cb.equal(file.get("contextRefId"), filter.contextRefId()));
+        }
+        return predicates;
+    }
+}
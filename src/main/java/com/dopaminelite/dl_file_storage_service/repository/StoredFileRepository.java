@@ -1,36 +1,59 @@
 package com.dopaminelite.dl_file_storage_service.repository;
 
-import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
 import com.dopaminelite.dl_file_storage_service.entity.StoredFile;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
-public interface StoredFileRepository extends JpaRepository<StoredFile, UUID> {
-    Page<StoredFile> findByCreatedByUserIdAndContextTypeAndContextRefIdAndIsDeletedFalse(
-            UUID createdByUserId,
-            FileContextType contextType,
-            String contextRefId,
-            Pageable pageable);
-
-    Page<StoredFile> findByCreatedByUserIdAndContextTypeAndIsDeletedFalse(
-            UUID createdByUserId,
-            FileContextType contextType,
-            Pageable pageable);
-
-    Page<StoredFile> findByCreatedByUserIdAndIsDeletedFalse(UUID createdByUserId, Pageable pageable);
-
-    Page<StoredFile> findByContextTypeAndContextRefIdAndIsDeletedFalse(
-            FileContextType contextType,
-            String contextRefId,
-            Pageable pageable);
-
-    Page<StoredFile> findByContextTypeAndIsDeletedFalse(FileContextType contextType, Pageable pageable);
-
-    Page<StoredFile> findByIsDeletedFalse(Pageable pageable);
+public interface StoredFileRepository extends JpaRepository<StoredFile, UUID>, StoredFileQueries {
 
     Optional<StoredFile> findByIdAndIsDeletedFalse(UUID id);
+
+    List<StoredFile> findByIdInAndIsDeletedFalse(Collection<UUID> ids);
+
+    // Purge: soft-deleted rows whose deletion (updatedAt) is older than the retention cutoff, in keyset order
+
+    @Query("""
+            select f from StoredFile f
+            where f.isDeleted = true and f.updatedAt < :deletedBefore
+              and (f.updatedAt > :afterUpdatedAt or (f.updatedAt = :afterUpdatedAt and f.id > :afterId))
+            order by f.updatedAt asc, f.id asc
+            """)
+    List<StoredFile> findPurgeableAfter(
+            @Param("deletedBefore") Instant deletedBefore,
+            @Param("afterUpdatedAt") Instant afterUpdatedAt,
+            @Param("afterId") UUID afterId,
+            Limit limit);
+
+    @Query("select distinct f.storagePath from StoredFile f where f.isDeleted = false and f.storagePath in :storagePaths")
+    Set<String> findActiveStoragePaths(@Param("storagePaths") Collection<String> storagePaths);
+
+    // Reconciliation: rows (deleted or not) referencing any of the given objects
+    @Query("select distinct f.storagePath from StoredFile f where f.storagePath in :storagePaths")
+    Set<String> findStoragePaths(@Param("storagePaths") Collection<String> storagePaths);
+
+    /**
+     * Storage paths of active files in the key range {@code (afterPath, upToPath]}, compared
+     * byte-wise ("C" collation) like object store listings. Backed by idx_stored_files_storage_path_c.
+     */
+    @Query(value = """
+            select distinct f.storage_path from dopaminelite_stored_files f
+            where f.is_deleted = false and f.created_at < :createdBefore
+              and f.storage_path collate "C" > :afterPath
+              and f.storage_path collate "C" <= :upToPath
+            limit :maxRows
+            """, nativeQuery = true)
+    List<String> findActiveStoragePathsInRange(
+            @Param("afterPath") String afterPath,
+            @Param("upToPath") String upToPath,
+            @Param("createdBefore") Instant createdBefore,
+            @Param("maxRows") int maxRows);
 }
@@ -0,0 +1,52 @@
+package com.dopaminelite.dl_file_storage_service.repository;
+
+import com.dopaminelite.dl_file_storage_service.entity.StoredObject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+public interface StoredObjectRepository extends JpaRepository<StoredObject, UUID> {
+
+    Optional<StoredObject> findBySha256AndSizeBytes(String sha256, long sizeBytes);
+
+    @Modifying
+    @Query("update StoredObject o set o.refCount = o.refCount + 1 where o.id = :id")
+    int incrementRefCount(@Param("id") UUID id);
+
+    @Modifying
+    @Query("update StoredObject o set o.refCount = o.refCount - 1 where o.storagePath = :storagePath and o.refCount > 0")
+    int decrementRefCount(@Param("storagePath") String storagePath);
+
+    /**
+     * Removes the objects among {@code storagePaths} that no active file references any more.
+     * Runs before the objects are deleted from storage so that no new upload can deduplicate onto them.
+     */
+    @Modifying
+    @Query("delete from StoredObject o where o.storagePath in :storagePaths and o.refCount <= 0")
+    int deleteUnreferenced(@Param("storagePaths") Collection<String> storagePaths);
+
+    @Query("select o.storagePath from StoredObject o where o.storagePath in :storagePaths")
+    Set<String> findStoragePaths(@Param("storagePaths") Collection<String> storagePaths);
+
+    /**
+     * Registers a newly stored object with one reference. Returns 0 when a concurrent upload of
+     * the same content registered first; the caller's object then simply stays unshared.
+     */
+    @Modifying
+    @Query(value = """
+            insert into dopaminelite_stored_objects (id, sha256, size_bytes, bucket, storage_path, ref_count, created_at)
+            values (:id, :sha256, :sizeBytes, :bucket, :storagePath, 1, now())
+            on conflict do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id,
+                       @Param("sha256") String sha256,
+                       @Param("sizeBytes") long sizeBytes,
+                       @Param("bucket") String bucket,
+                       @Param("storagePath") String storagePath);
+}
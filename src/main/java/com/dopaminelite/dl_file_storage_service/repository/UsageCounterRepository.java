@@ -0,0 +1,115 @@
+package com.dopaminelite.dl_file_storage_service.repository;
+
+import com.dopaminelite.dl_file_storage_service.entity.UsageCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface UsageCounterRepository extends JpaRepository<UsageCounter, String> {
+
+    /**
+     * Adds the deltas to the user's counter, creating it if absent, and returns the new totals.
+     * The upsert takes the row lock, so concurrent uploads of one user apply one after another.
+     */
+    @Query(value = """
+            insert into dopaminelite_usage_counters as c (scope, user_id, file_count, total_bytes, updated_at)
+            values (:scope, :userId, :fileDelta, :bytesDelta, :now)
+            on conflict (scope) do update
+               set file_count = c.file_count + excluded.file_count,
+                   total_bytes = c.total_bytes + excluded.total_bytes,
+                   updated_at = excluded.updated_at
+            returning c.file_count as "fileCount", c.total_bytes as "totalBytes"
+            """, nativeQuery = true)
+    Totals addUserUsage(@Param("scope") String scope,
+                        @Param("userId") UUID userId,
+                        @Param("fileDelta") long fileDelta,
+                        @Param("bytesDelta") long bytesDelta,
+                        @Param("now") Instant now);
+
+    @Query(value = """
+            insert into dopaminelite_usage_counters as c (scope, context_type, context_ref_id, file_count, total_bytes, updated_at)
+            values (:scope, :contextType, :contextRefId, :fileDelta, :bytesDelta, :now)
+            on conflict (scope) do update
+               set file_count = c.file_count + excluded.file_count,
+                   total_bytes = c.total_bytes + excluded.total_bytes,
+                   updated_at = excluded.updated_at
+            returning c.file_count as "fileCount", c.total_bytes as "totalBytes"
+            """, nativeQuery = true)
+    Totals addContextUsage(@Param("scope") String scope,
+                           @Param("contextType") String contextType,
+                           @Param("contextRefId") String contextRefId,
+                           @Param("fileDelta") long fileDelta,
+                           @Param("bytesDelta") long bytesDelta,
+                           @Param("now") Instant now);
+
+    // Reconciliation: actual usage of the next users after the cursor, in user id order
+
+    @Query(value = """
+            select f.created_by_user_id as "userId", count(*) as "fileCount",
+                   cast(coalesce(sum(f.size_bytes), 0) as bigint) as "totalBytes"
+            from dopaminelite_stored_files f
+            where not f.is_deleted and f.created_by_user_id > :afterUserId
+            group by f.created_by_user_id
+            order by f.created_by_user_id
+            limit :batchSize
+            """, nativeQuery = true)
+    List<UserUsage> countUsersAfter(@Param("afterUserId") UUID afterUserId, @Param("batchSize") int batchSize);
+
+    // Counters in the user range (afterUserId, upToUserId], or past afterUserId when unbounded
+    @Query(value = """
+            select c.user_id as "userId", c.file_count as "fileCount", c.total_bytes as "totalBytes"
+            from dopaminelite_usage_counters c
+            where c.user_id > :afterUserId and (:unbounded or c.user_id <= :upToUserId)
+            """, nativeQuery = true)
+    List<UserUsage> findUserCounters(@Param("afterUserId") UUID afterUserId,
+                                     @Param("upToUserId") UUID upToUserId,
+                                     @Param("unbounded") boolean unbounded);
+
+    @Query(value = """
+            select f.context_type as "contextType", f.context_ref_id as "contextRefId", count(*) as "fileCount",
+                   cast(coalesce(sum(f.size_bytes), 0) as bigint) as "totalBytes"
+            from dopaminelite_stored_files f
+            where not f.is_deleted and f.context_ref_id is not null
+              and (f.context_type, f.context_ref_id) > (:afterType, :afterRefId)
+            group by f.context_type, f.context_ref_id
+            order by f.context_type, f.context_ref_id
+            limit :batchSize
+            """, nativeQuery = true)
+    List<ContextUsage> countContextsAfter(@Param("afterType") String afterType,
+                                          @Param("afterRefId") String afterRefId,
+                                          @Param("batchSize") int batchSize);
+
+    @Query(value = """
+            select c.context_type as "contextType", c.context_ref_id as "contextRefId",
+                   c.file_count as "fileCount", c.total_bytes as "totalBytes"
+            from dopaminelite_usage_counters c
+            where c.context_type is not null
+              and (c.context_type, c.context_ref_id) > (:afterType, :afterRefId)
+              and (:unbounded or (c.context_type, c.context_ref_id) <= (:upToType, :upToRefId))
+            """, nativeQuery = true)
+    List<ContextUsage> findContextCounters(@Param("afterType") String afterType,
+                                           @Param("afterRefId") String afterRefId,
+                                           @Param("upToType") String upToType,
+                                           @Param("upToRefId") String upToRefId,
+                                           @Param("unbounded") boolean unbounded);
+
+    interface Totals {
+        long getFileCount();
+
+        long getTotalBytes();
+    }
+
+    interface UserUsage extends Totals {
+        UUID getUserId();
+    }
+
+    interface ContextUsage extends Totals {
+        String getContextType();
+
+        String getContextRefId();
+    }
+}
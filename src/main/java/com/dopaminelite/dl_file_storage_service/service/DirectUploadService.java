@@ -0,0 +1,18 @@
+package com.dopaminelite.dl_file_storage_service.service;
+
+import com.dopaminelite.dl_file_storage_service.dto.CompleteUploadRequest;
+import com.dopaminelite.dl_file_storage_service.dto.FileUploadResponse;
+import com.dopaminelite.dl_file_storage_service.dto.InitiateUploadRequest;
+import com.dopaminelite.dl_file_storage_service.dto.InitiateUploadResponse;
+
+import java.util.UUID;
+
+/**
+ * Two-step uploads where the client sends the bytes straight to storage with presigned requests
+ * and this service only records and verifies the result.
+ */
+public interface DirectUploadService {
+    InitiateUploadResponse initiateUpload(InitiateUploadRequest request);
+
+    FileUploadResponse completeUpload(UUID uploadId, CompleteUploadRequest request);
+}
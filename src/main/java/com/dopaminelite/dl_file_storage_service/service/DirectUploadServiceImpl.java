@@ -0,0 +1,272 @@
+package com.dopaminelite.dl_file_storage_service.service;
+
+import com.dopaminelite.dl_file_storage_service.config.StorageProperties;
+import com.dopaminelite.dl_file_storage_service.datasource.ReadYourWritesTracker;
+import com.dopaminelite.dl_file_storage_service.dto.*;
+import com.dopaminelite.dl_file_storage_service.entity.PendingUpload;
+import com.dopaminelite.dl_file_storage_service.entity.StoredFile;
+import com.dopaminelite.dl_file_storage_service.exception.BadRequestException;
+import com.dopaminelite.dl_file_storage_service.exception.NotFoundException;
+import com.dopaminelite.dl_file_storage_service.exception.NotImplementedException;
+import com.dopaminelite.dl_file_storage_service.exception.QuotaExceededException;
+import com.dopaminelite.dl_file_storage_service.mapper.FileMapper;
+import com.dopaminelite.dl_file_storage_service.outbox.FileChangeOutbox;
+import com.dopaminelite.dl_file_storage_service.repository.PendingUploadRepository;
+import com.dopaminelite.dl_file_storage_service.repository.StoredFileRepository;
+import com.dopaminelite.dl_file_storage_service.storage.ObjectKeyLayout;
+import com.dopaminelite.dl_file_storage_service.storage.PresignedUpload;
+import com.dopaminelite.dl_file_storage_service.storage.StorageProvider;
+import com.dopaminelite.dl_file_storage_service.storage.StoredObjectMetadata;
+import com.dopaminelite.dl_file_storage_service.storage.UploadedPart;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class DirectUploadServiceImpl implements DirectUploadService {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-fA-F]{64}");
+    private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
+    private static final int MAX_PARTS = 10_000;
+
+    private final PendingUploadRepository pendingUploadRepository;
+    private final StoredFileRepository repository;
+    private final StorageProvider storageProvider;
+    private final ObjectKeyLayout objectKeyLayout;
+    private final StorageProperties storageProperties;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final FileChangeOutbox fileChangeOutbox;
+    private final UsageService usageService;
+
+    // Storage calls run outside any transaction; only the pending-upload insert needs one
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public InitiateUploadResponse initiateUpload(InitiateUploadRequest request) {
+        if (!storageProvider.supportsDirectUpload()) {
+            throw new NotImplementedException("Direct uploads are not supported by the configured storage provider");
+        }
+        validate(request);
+        // Before anything is presigned, so no content is transferred for an upload over quota
+        usageService.checkQuota(request.getCreatedByUserId(), request.getContextType(), request.getContextRefId(),
+                1, request.getSizeBytes());
+        StorageProperties.DirectUploadProperties directProps = storageProperties.getDirectUpload();
+        StorageProperties.MultipartProperties multipartProps = storageProperties.getS3().getMultipart();
+
+        String originalName = request.getOriginalFileName();
+        String mimeType = request.getMimeType() != null && !request.getMimeType().isBlank() ? request.getMimeType() : DEFAULT_MIME_TYPE;
+        ObjectKeyLayout.ObjectKey objectKey = objectKeyLayout.newObjectKey(request.getContextType(), originalName);
+        String storedFileName = objectKey.storedFileName();
+        String bucket = request.getContextType().name().toLowerCase();
+        String storagePath = storageProvider.resolveStoragePath(storedFileName, objectKey.bucketPath());
+        String sha256 = request.getSha256() != null ? request.getSha256().toLowerCase() : null;
+        int exp = directProps.getUrlExpirationSeconds();
+        Instant expiresAt = Instant.now().plusSeconds(exp);
+
+        log.debug("Initiating direct upload of '{}' ({} bytes) for userId: {}, contextType: {}, contextRefId: {}",
+                originalName, request.getSizeBytes(), request.getCreatedByUserId(), request.getContextType(), request.getContextRefId());
+
+        InitiateUploadResponse.InitiateUploadResponseBuilder response = InitiateUploadResponse.builder()
+                .expiresAt(OffsetDateTime.ofInstant(expiresAt, ZoneOffset.UTC));
+        String multipartUploadId = null;
+
+        PendingUpload pending;
+        try {
+            if (request.getSizeBytes() >= multipartProps.getThresholdBytes()) {
+                long partSize = Math.max(multipartProps.getPartSizeBytes(), ceilDiv(request.getSizeBytes(), MAX_PARTS));
+                int partCount = (int) ceilDiv(request.getSizeBytes(), partSize);
+                multipartUploadId = storageProvider.createMultipartUpload(storagePath, mimeType);
+                List<UploadPartUrl> parts = new ArrayList<>(partCount);
+                for (int partNumber = 1; partNumber <= partCount; partNumber++) {
+                    parts.add(UploadPartUrl.builder()
+                            .partNumber(partNumber)
+                            .url(storageProvider.presignUploadPart(storagePath, multipartUploadId, partNumber, exp))
+                            .build());
+                }
+                response.partSizeBytes(partSize).parts(parts);
+            } else {
+                String checksum = sha256 != null ? toBase64(sha256) : null;
+                PresignedUpload presigned = storageProvider.presignUpload(storagePath, mimeType, request.getSizeBytes(), checksum, exp);
+                response.uploadUrl(presigned.url()).uploadHeaders(presigned.signedHeaders());
+            }
+
+            pending = pendingUploadRepository.save(PendingUpload.builder()
+                    .originalFileName(originalName)
+                    .storedFileName(storedFileName)
+                    .mimeType(mimeType)
+                    .sizeBytes(request.getSizeBytes())
+                    .sha256(sha256)
+                    .bucket(bucket)
+                    .storagePath(storagePath)
+                    .contextType(request.getContextType())
+                    .contextRefId(request.getContextRefId())
+                    .createdByUserId(request.getCreatedByUserId())
+                    .multipartUploadId(multipartUploadId)
+                    .expiresAt(expiresAt)
+                    .build());
+        } catch (RuntimeException e) {
+            // Without a pending row nothing would ever abort the multipart upload created above
+            if (multipartUploadId != null) {
+                abortQuietly(storagePath, multipartUploadId);
+            }
+            throw e;
+        }
+        log.debug("Direct upload '{}' initiated for key '{}' (multipart: {})", pending.getId(), storagePath, multipartUploadId != null);
+
+        return response.uploadId(pending.getId()).build();
+    }
+
+    /**
+     * Completes and verifies the object outside any transaction, then swaps the pending upload for
+     * the file row in one short transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public FileUploadResponse completeUpload(UUID uploadId, CompleteUploadRequest request) {
+        // Repository reads are read-only transactions; the pending row may be too fresh for a replica
+        PendingUpload pending;
+        try (ReadYourWritesTracker.Scope ignored = readYourWritesTracker.requirePrimary()) {
+            pending = pendingUploadRepository.findById(uploadId)
+                    .orElseThrow(() -> {
+                        log.error("Pending upload not found: id: {}", uploadId);
+                        return new NotFoundException("Upload not found: " + uploadId);
+                    });
+        }
+        if (pending.getExpiresAt().isBefore(Instant.now())) {
+            log.error("Pending upload {} expired at {}", uploadId, pending.getExpiresAt());
+            throw new BadRequestException("Upload expired: " + uploadId);
+        }
+
+        if (pending.getMultipartUploadId() != null) {
+            if (request == null || request.getParts() == null || request.getParts().isEmpty()) {
+                throw new BadRequestException("Completed parts are required for multipart uploads");
+            }
+            List<UploadedPart> parts = request.getParts().stream()
+                    .sorted(Comparator.comparingInt(CompletedUploadPart::getPartNumber))
+                    .map(part -> new UploadedPart(part.getPartNumber(), part.getEtag()))
+                    .toList();
+            storageProvider.completeMultipartUpload(pending.getStoragePath(), pending.getMultipartUploadId(), parts);
+        }
+
+        StoredObjectMetadata metadata = storageProvider.headObject(pending.getStoragePath())
+                .orElseThrow(() -> {
+                    log.error("No object found for pending upload {} at '{}'", uploadId, pending.getStoragePath());
+                    return new BadRequestException("Uploaded object not found for upload: " + uploadId);
+                });
+        if (metadata.contentLength() != pending.getSizeBytes()) {
+            log.error("Size mismatch for upload {}: expected {} bytes, stored {}", uploadId, pending.getSizeBytes(), metadata.contentLength());
+            discard(pending);
+            throw new BadRequestException("Uploaded object size does not match declared size");
+        }
+
+        // Multipart objects carry a composite checksum, so the declared hash is only trusted for single PUTs
+        String verifiedSha256 = null;
+        if (pending.getSha256() != null && metadata.checksumSha256() != null) {
+            if (!toBase64(pending.getSha256()).equals(metadata.checksumSha256())) {
+                log.error("Checksum mismatch for upload {}", uploadId);
+                discard(pending);
+                throw new BadRequestException("Uploaded object checksum does not match declared sha256");
+            }
+            verifiedSha256 = pending.getSha256();
+        }
+
+        StoredFile stored = StoredFile.builder()
+                .originalFileName(pending.getOriginalFileName())
+                .storedFileName(pending.getStoredFileName())
+                .mimeType(pending.getMimeType())
+                .sizeBytes(pending.getSizeBytes())
+                .sha256(verifiedSha256)
+                .bucket(pending.getBucket())
+                .storagePath(pending.getStoragePath())
+                .contextType(pending.getContextType())
+                .contextRefId(pending.getContextRefId())
+                .createdByUserId(pending.getCreatedByUserId())
+                .isDeleted(false)
+                .build();
+        StoredFile entity;
+        try {
+            entity = transactionTemplate.execute(status -> {
+                if (pendingUploadRepository.deletePending(uploadId) == 0) {
+                    log.error("Pending upload {} was completed concurrently", uploadId);
+                    throw new NotFoundException("Upload not found: " + uploadId);
+                }
+                StoredFile saved = repository.save(stored);
+                fileChangeOutbox.recordCreated(List.of(saved));
+                usageService.recordCreated(List.of(saved));
+                return saved;
+            });
+        } catch (QuotaExceededException e) {
+            // Uploads that passed the check at initiation concurrently can still exceed the quota here
+            discard(pending);
+            throw e;
+        }
+        readYourWritesTracker.recordFileWrite(entity.getId(), entity.getCreatedByUserId(), entity.getContextType(), entity.getContextRefId());
+        log.debug("Direct upload {} completed as file id: {}", uploadId, entity.getId());
+        FileMetrics.recordUploadSize(meterRegistry, entity.getContextType(), "direct", entity.getSizeBytes());
+
+        return FileUploadResponse.builder()
+                .file(FileMapper.toDto(entity))
+                .build();
+    }
+
+    private void discard(PendingUpload pending) {
+        try {
+            storageProvider.delete(pending.getStoragePath());
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to delete object '{}' of rejected upload {}", pending.getStoragePath(), pending.getId(), e);
+        }
+        transactionTemplate.executeWithoutResult(status -> pendingUploadRepository.deletePending(pending.getId()));
+    }
+
+    private void abortQuietly(String storagePath, String multipartUploadId) {
+        try {
+            storageProvider.abortMultipartUpload(storagePath, multipartUploadId);
+        } catch (RuntimeException e) {
+            log.error("Failed to abort multipart upload '{}' of '{}'", multipartUploadId, storagePath, e);
+        }
+    }
+
+    private void validate(InitiateUploadRequest request) {
+        if (request == null) throw new BadRequestException("Request body is required");
+        if (request.getOriginalFileName() == null || request.getOriginalFileName().isBlank()) {
+            throw new BadRequestException("originalFileName is required");
+        }
+        if (request.getCreatedByUserId() == null) throw new BadRequestException("createdByUserId is required");
+        if (request.getContextType() == null) throw new BadRequestException("contextType is required");
+        if (request.getSizeBytes() <= 0) throw new BadRequestException("sizeBytes must be > 0");
+        if (request.getSizeBytes() > storageProperties.getDirectUpload().getMaxSizeBytes()) {
+            throw new BadRequestException("sizeBytes must be <= " + storageProperties.getDirectUpload().getMaxSizeBytes());
+        }
+        if (request.getSha256() != null && !SHA256_HEX.matcher(request.getSha256()).matches()) {
+            throw new BadRequestException("sha256 must be 64 hex characters");
+        }
+    }
+
+    private static String toBase64(String hex) {
+        return Base64.getEncoder().encodeToString(HexFormat.of().parseHex(hex));
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return (x + y - 1) / y;
+    }
+}
@@ -0,0 +1,12 @@
+package com.dopaminelite.dl_file_storage_service.service;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.dto.FileChangeFeedResponse;
+
+/**
+ * Pull side of the file change outbox: consumers page through created/deleted events with a
+ * cursor instead of re-listing files.
+ */
+public interface FileChangeService {
+    FileChangeFeedResponse listChanges(String afterCursor, FileContextType contextType, String contextRefId, int limit);
+}
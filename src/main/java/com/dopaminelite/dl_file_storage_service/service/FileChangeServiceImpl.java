@@ -0,0 +1,88 @@
+package com.dopaminelite.dl_file_storage_service.service;
+
+import com.dopaminelite.dl_file_storage_service.config.StorageProperties;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.dto.FileChangeEventDto;
+import com.dopaminelite.dl_file_storage_service.dto.FileChangeFeedResponse;
+import com.dopaminelite.dl_file_storage_service.entity.FileChangeEvent;
+import com.dopaminelite.dl_file_storage_service.exception.BadRequestException;
+import com.dopaminelite.dl_file_storage_service.mapper.FileMapper;
+import com.dopaminelite.dl_file_storage_service.repository.FileChangeEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@Slf4j
+public class FileChangeServiceImpl implements FileChangeService {
+
+    private static final int MAX_LIMIT = 500;
+
+    private final FileChangeEventRepository repository;
+    private final StorageProperties storageProperties;
+
+    /**
+     * Events after the cursor in id order. Only events older than the visibility delay are
+     * returned: ids are assigned at insert but become visible at commit, and the delay keeps a
+     * consumer's cursor from passing an id whose transaction has not committed yet.
+     */
+    @Override
+    public FileChangeFeedResponse listChanges(String afterCursor, FileContextType contextType, String contextRefId, int limit) {
+        if (limit <= 0) throw new BadRequestException("limit must be > 0");
+        if (limit > MAX_LIMIT) throw new BadRequestException("limit must be <= " + MAX_LIMIT);
+        if (contextRefId != null && contextType == null) {
+            throw new BadRequestException("contextRefId requires contextType");
+        }
+        long afterId = decodeCursor(afterCursor);
+        Instant occurredBefore = Instant.now().minusMillis(storageProperties.getOutbox().getVisibilityDelayMillis());
+
+        // One extra row tells whether more events are ready
+        Limit rows = Limit.of(limit + 1);
+        List<FileChangeEvent> events;
+        if (contextRefId != null) {
+            events = repository.findByContextTypeAndContextRefIdAndIdGreaterThanAndOccurredAtBeforeOrderByIdAsc(
+                    contextType, contextRefId, afterId, occurredBefore, rows);
+        } else if (contextType != null) {
+            events = repository.findByContextTypeAndIdGreaterThanAndOccurredAtBeforeOrderByIdAsc(
+                    contextType, afterId, occurredBefore, rows);
+        } else {
+            events = repository.findByIdGreaterThanAndOccurredAtBeforeOrderByIdAsc(afterId, occurredBefore, rows);
+        }
+
+        boolean hasMore = events.size() > limit;
+        List<FileChangeEventDto> items = (hasMore ? events.subList(0, limit) : events).stream()
+                .map(FileMapper::toDto)
+                .toList();
+        long nextId = items.isEmpty() ? afterId : items.get(items.size() - 1).getEventId();
+        log.debug("Returning {} file change event(s) after {} (hasMore: {})", items.size(), afterId, hasMore);
+
+        return FileChangeFeedResponse.builder()
+                .items(items)
+                .nextCursor(Long.toString(nextId))
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // The cursor is the id of the last event seen; blank starts from the oldest retained event
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            long id = Long.parseLong(cursor);
+            if (id < 0) {
+                throw new NumberFormatException();
+            }
+            return id;
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.dopaminelite.dl_file_storage_service.service;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.repository.StoredFileFilter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.StringJoiner;
+
+/**
+ * Meters recorded by the file services. Storage provider latency is recorded separately by
+ * {@link com.dopaminelite.dl_file_storage_service.storage.MeteredStorageProvider}.
+ */
+final class FileMetrics {
+
+    static final String UPLOAD_SIZE = "files.upload.size";
+    static final String LIST_QUERY = "files.list.query";
+
+    private FileMetrics() {
+    }
+
+    static void recordUploadSize(MeterRegistry registry, FileContextType contextType, String source, long sizeBytes) {
+        DistributionSummary.builder(UPLOAD_SIZE)
+                .description("Size of uploaded files")
+                .baseUnit("bytes")
+                .tag("context_type", contextType.name())
+                .tag("source", source)
+                .register(registry)
+                .record(sizeBytes);
+    }
+
+    /**
+     * Timer for file listings; {@code pagination} is {@code offset} or {@code keyset} and the
+     * {@code filter} tag names the filters present, e.g. {@code user_context}.
+     */
+    static Timer listQueryTimer(MeterRegistry registry, String pagination, StoredFileFilter filter) {
+        return Timer.builder(LIST_QUERY)
+                .description("Repository time of file listings, by filter combination")
+                .tag("pagination", pagination)
+                .tag("filter", filterOf(filter))
+                .register(registry);
+    }
+
+    private static String filterOf(StoredFileFilter filter) {
+        StringJoiner present = new StringJoiner("_");
+        if (filter.createdByUserId() != null) present.add("user");
+        if (filter.contextType() != null) present.add("context");
+        if (filter.contextRefId() != null) present.add("ref");
+        return present.length() > 0 ? present.toString() : "all";
+    }
+}
@@ -8,8 +8,11 @@ import com.dopaminelite.dl_file_storage_service.dto.FileListResponse;
 import com.dopaminelite.dl_file_storage_service.dto.FileSignedUrlResponse;
 import com.dopaminelite.dl_file_storage_service.dto.FileUploadResponse;
 import com.dopaminelite.dl_file_storage_service.dto.StoredFileDto;
+import org.springframework.data.domain.Sort;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,17 +23,52 @@ public interface FileStorageService {
                                   String contextRefId,
                                   boolean generateSignedUrl);
 
+    /**
+     * Uploads all files of one request; their rows are inserted together in a single transaction.
+     * Responses are in request order.
+     */
+    List<FileUploadResponse> uploadFiles(List<MultipartFile> files,
+                                         UUID createdByUserId,
+                                         FileContextType contextType,
+                                         String contextRefId,
+                                         boolean generateSignedUrl);
+
     StoredFileDto getFile(UUID fileId);
 
+    /**
+     * Opens {@code length} bytes of the file's content starting at {@code offset}.
+     */
+    InputStream openFileContent(StoredFileDto file, long offset, long length) throws IOException;
+
     void softDeleteFile(UUID fileId);
 
     FileSignedUrlResponse generateSignedUrl(UUID fileId, SignedUrlIntent intent, Integer expiresInSeconds);
 
-    BulkFileSignedUrlResponse bulkGenerateSignedUrls(List<BulkFileSignedUrlRequestItem> items, Integer expiresInSeconds);
+    BulkFileSignedUrlResponse bulkGenerateSignedUrls(List<BulkFileSignedUrlRequestItem> items,
+                                                     Integer expiresInSeconds,
+                                                     boolean partialSuccess);
 
+    /**
+     * Offset-paginated listing ordered by (createdAt, id) in {@code direction}. Any combination of
+     * the filters may be given; {@code null} filters are ignored.
+     */
     FileListResponse listFiles(UUID createdByUserId,
                                FileContextType contextType,
                                String contextRefId,
+                               Sort.Direction direction,
                                int limit,
                                int offset);
+
+    /**
+     * Keyset-paginated listing ordered by (createdAt, id) in {@code direction}. A blank cursor starts
+     * at the first page; the cursor must be used with the direction it was issued for. The COUNT(*)
+     * for {@code total} only runs when {@code includeTotal} is set.
+     */
+    FileListResponse listFilesAfter(UUID createdByUserId,
+                                    FileContextType contextType,
+                                    String contextRefId,
+                                    Sort.Direction direction,
+                                    int limit,
+                                    String cursor,
+                                    boolean includeTotal);
 }
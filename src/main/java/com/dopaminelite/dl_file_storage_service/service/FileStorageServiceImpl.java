@@ -1,28 +1,59 @@
 package com.dopaminelite.dl_file_storage_service.service;
 
+import com.dopaminelite.dl_file_storage_service.cache.FileMetadataCache;
+import com.dopaminelite.dl_file_storage_service.cache.SignedUrlCache;
 import com.dopaminelite.dl_file_storage_service.config.StorageProperties;
 import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
 import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+import com.dopaminelite.dl_file_storage_service.datasource.ReadYourWritesTracker;
 import com.dopaminelite.dl_file_storage_service.dto.*;
 import com.dopaminelite.dl_file_storage_service.entity.StoredFile;
+import com.dopaminelite.dl_file_storage_service.entity.StoredObject;
 import com.dopaminelite.dl_file_storage_service.exception.BadRequestException;
 import com.dopaminelite.dl_file_storage_service.exception.NotFoundException;
 import com.dopaminelite.dl_file_storage_service.mapper.FileMapper;
+import com.dopaminelite.dl_file_storage_service.outbox.FileChangeOutbox;
+import com.dopaminelite.dl_file_storage_service.repository.StoredFileFilter;
 import com.dopaminelite.dl_file_storage_service.repository.StoredFileRepository;
+import com.dopaminelite.dl_file_storage_service.repository.StoredObjectRepository;
+import com.dopaminelite.dl_file_storage_service.storage.ObjectKeyLayout;
 import com.dopaminelite.dl_file_storage_service.storage.StorageProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -30,12 +61,117 @@ import java.util.UUID;
 @Slf4j
 public class FileStorageServiceImpl implements FileStorageService {
 
+    // Keeps IN lists well below the PostgreSQL bind-parameter limit
+    private static final int ID_LOOKUP_CHUNK_SIZE = 1000;
+    private static final int PARALLEL_PRESIGN_THRESHOLD = 32;
+
     private final StoredFileRepository repository;
+    private final StoredObjectRepository storedObjectRepository;
     private final StorageProvider storageProvider;
+    private final ObjectKeyLayout objectKeyLayout;
     private final StorageProperties storageProperties;
+    private final SignedUrlCache signedUrlCache;
+    private final FileMetadataCache fileMetadataCache;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService uploadExecutor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final FileChangeOutbox fileChangeOutbox;
+    private final UsageService usageService;
 
+    /**
+     * Runs outside any transaction so no connection is held during the storage transfer: the
+     * content is stored first, then the row is inserted in a short transaction of its own. If the
+     * insert fails, the freshly stored object is deleted again instead of being left orphaned.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public FileUploadResponse uploadFile(MultipartFile file, UUID createdByUserId, FileContextType contextType, String contextRefId, boolean generateSignedUrl) {
+        usageService.checkQuota(createdByUserId, contextType, contextRefId, 1, file != null ? file.getSize() : 0);
+        StagedUpload staged = stageUpload(file, createdByUserId, contextType, contextRefId);
+        StoredFile entity = persistStaged(List.of(staged)).get(0);
+        recordWrite(entity);
+        log.debug("File '{}' saved in database with id: {}", entity.getOriginalFileName(), entity.getId());
+        FileMetrics.recordUploadSize(meterRegistry, contextType, "multipart", entity.getSizeBytes());
+        return toUploadResponse(entity, generateSignedUrl);
+    }
+
+    /**
+     * Stages the files in parallel (at most {@code storage.upload.max-concurrent-files-per-request}
+     * at a time), then inserts all rows in one transaction so inserts are sent as JDBC batches.
+     * Either every file is persisted or none is; on failure the stored objects are deleted again.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<FileUploadResponse> uploadFiles(List<MultipartFile> files, UUID createdByUserId, FileContextType contextType, String contextRefId, boolean generateSignedUrl) {
+        if (files == null || files.isEmpty()) {
+            throw new BadRequestException("At least one file is required");
+        }
+
+        checkQuota(files, createdByUserId, contextType, contextRefId);
+        List<StagedUpload> staged = stageConcurrently(files, createdByUserId, contextType, contextRefId);
+        List<StoredFile> entities = persistStaged(staged);
+        entities.forEach(this::recordWrite);
+        log.debug("Saved {} file(s) in database for userId: {}", entities.size(), createdByUserId);
+
+        List<FileUploadResponse> responses = new ArrayList<>(entities.size());
+        for (StoredFile entity : entities) {
+            FileMetrics.recordUploadSize(meterRegistry, contextType, "multipart", entity.getSizeBytes());
+            responses.add(toUploadResponse(entity, generateSignedUrl));
+        }
+        return responses;
+    }
+
+    // The whole request is checked up front, before any content is transferred
+    private void checkQuota(List<MultipartFile> files, UUID createdByUserId, FileContextType contextType, String contextRefId) {
+        long sizeBytes = files.stream().filter(file -> file != null).mapToLong(MultipartFile::getSize).sum();
+        usageService.checkQuota(createdByUserId, contextType, contextRefId, files.size(), sizeBytes);
+    }
+
+    // Every failing file is logged; once all have finished the first failure is rethrown
+    private List<StagedUpload> stageConcurrently(List<MultipartFile> files, UUID createdByUserId,
+                                                 FileContextType contextType, String contextRefId) {
+        if (files.size() == 1) {
+            return List.of(stageUpload(files.get(0), createdByUserId, contextType, contextRefId));
+        }
+
+        Semaphore permits = new Semaphore(storageProperties.getUpload().getMaxConcurrentFilesPerRequest());
+        List<CompletableFuture<StagedUpload>> futures = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        return stageUpload(file, createdByUserId, contextType, contextRefId);
+                    } finally {
+                        permits.release();
+                    }
+                }, uploadExecutor))
+                .toList();
+
+        List<StagedUpload> staged = new ArrayList<>(files.size());
+        RuntimeException failure = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                staged.add(futures.get(i).join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.error("Failed to upload file '{}' for userId: {}", files.get(i).getOriginalFilename(), createdByUserId, cause);
+                if (failure == null) {
+                    failure = cause instanceof RuntimeException runtimeException ? runtimeException : e;
+                }
+            }
+        }
+        if (failure != null) {
+            staged.forEach(this::compensate);
+            throw failure;
+        }
+        return staged;
+    }
+
+    /**
+     * Validates the file and transfers its content to storage (or resolves an identical stored
+     * object when deduplicating). Returns the row to insert; nothing is written to the database.
+     */
+    private StagedUpload stageUpload(MultipartFile file, UUID createdByUserId, FileContextType contextType, String contextRefId) {
         if (file == null || file.isEmpty()) {
             log.error("Attempted to upload empty file by userId: {}", createdByUserId);
             throw new BadRequestException("File must not be empty");
@@ -44,26 +180,44 @@ public class FileStorageServiceImpl implements FileStorageService {
         String originalName = file.getOriginalFilename();
         String mimeType = file.getContentType();
         long sizeBytes = file.getSize();
-        String storedFileName = UUID.randomUUID() + "_" + originalName;
+        ObjectKeyLayout.ObjectKey objectKey = objectKeyLayout.newObjectKey(contextType, originalName);
+        String storedFileName = objectKey.storedFileName();
         String bucket = contextType.name().toLowerCase();
 
         log.debug("Uploading file '{}' (size: {} bytes, type: {}) for userId: {}, contextType: {}, contextRefId: {}",
                 originalName, sizeBytes, mimeType, createdByUserId, contextType, contextRefId);
 
-        byte[] content;
-        try {
-            content = file.getBytes();
-        } catch (IOException e) {
-            log.error("Failed to read file bytes for '{}'", originalName, e);
-            throw new BadRequestException("Unable to read file bytes: " + e.getMessage());
+        boolean dedup = isDedupEnabled(contextType);
+        String sha256 = null;
+        StoredObject existingObject = null;
+        if (dedup) {
+            // The part is spooled to disk, so hashing it up front only costs a local read
+            sha256 = hashContent(file);
+            existingObject = storedObjectRepository.findBySha256AndSizeBytes(sha256, sizeBytes).orElse(null);
         }
 
         String storagePath;
-        try {
-            storagePath = storageProvider.store(content, storedFileName, bucket);
-        } catch (IOException e) {
-            log.error("Failed to store file '{}' for userId: {}", originalName, createdByUserId, e);
-            throw new BadRequestException("Failed to store file: " + e.getMessage());
+        if (existingObject != null) {
+            storagePath = existingObject.getStoragePath();
+            bucket = existingObject.getBucket();
+            log.debug("Deduplicating file '{}' onto existing object '{}'", originalName, storagePath);
+        } else {
+            InputStream content;
+            MessageDigest digest = newSha256Digest();
+            try {
+                content = new DigestInputStream(file.getInputStream(), digest);
+            } catch (IOException e) {
+                log.error("Failed to open file content for '{}'", originalName, e);
+                throw new BadRequestException("Unable to read file content: " + e.getMessage());
+            }
+
+            try (content) {
+                storagePath = storageProvider.store(content, sizeBytes, storedFileName, objectKey.bucketPath());
+            } catch (IOException e) {
+                log.error("Failed to store file '{}' for userId: {}", originalName, createdByUserId, e);
+                throw new BadRequestException("Failed to store file: " + e.getMessage());
+            }
+            sha256 = HexFormat.of().formatHex(digest.digest());
         }
 
         StoredFile entity = StoredFile.builder()
@@ -76,21 +230,72 @@ public class FileStorageServiceImpl implements FileStorageService {
                 .contextType(contextType)
                 .contextRefId(contextRefId)
                 .createdByUserId(createdByUserId)
-                .sha256(null)
+                .sha256(sha256)
                 .isDeleted(false)
                 .build();
+        return new StagedUpload(entity, existingObject != null ? existingObject.getId() : null, dedup);
+    }
+
+    /**
+     * Inserts the staged rows (with their stored-object references, change events and usage) in one
+     * short transaction; the inserts are flushed together at commit as JDBC batches. On failure
+     * the objects stored by these uploads are deleted again before the error propagates.
+     */
+    private List<StoredFile> persistStaged(List<StagedUpload> staged) {
+        try {
+            return transactionTemplate.execute(status -> {
+                staged.forEach(this::registerObjectReference);
+                List<StoredFile> saved = repository.saveAll(staged.stream().map(StagedUpload::entity).toList());
+                fileChangeOutbox.recordCreated(saved);
+                usageService.recordCreated(saved);
+                return saved;
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to persist {} file(s)", staged.size(), e);
+            staged.forEach(this::compensate);
+            throw e;
+        }
+    }
+
+    private void registerObjectReference(StagedUpload staged) {
+        StoredFile entity = staged.entity();
+        if (staged.sharedObjectId() != null) {
+            if (storedObjectRepository.incrementRefCount(staged.sharedObjectId()) == 0) {
+                // Purged since it was looked up; the client can retry and store the content afresh
+                throw new IllegalStateException("Stored object was removed during upload: " + entity.getStoragePath());
+            }
+        } else if (staged.dedup()
+                && storedObjectRepository.insertIfAbsent(UUID.randomUUID(), entity.getSha256(), entity.getSizeBytes(),
+                entity.getBucket(), entity.getStoragePath()) == 0) {
+            log.debug("Identical content for '{}' was registered concurrently; keeping unshared object '{}'",
+                    entity.getOriginalFileName(), entity.getStoragePath());
+        }
+    }
 
-        entity = repository.save(entity);
-        log.debug("File '{}' saved in database with id: {}", originalName, entity.getId());
+    // Shared objects belong to other rows and are never removed here
+    private void compensate(StagedUpload staged) {
+        if (staged.sharedObjectId() != null) {
+            return;
+        }
+        String storagePath = staged.entity().getStoragePath();
+        try {
+            storageProvider.delete(storagePath);
+            log.debug("Deleted object '{}' of failed upload", storagePath);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to delete object '{}' of failed upload; it remains orphaned", storagePath, e);
+        }
+    }
 
+    private FileUploadResponse toUploadResponse(StoredFile entity, boolean generateSignedUrl) {
         StoredFileDto dto = FileMapper.toDto(entity);
         String signedUrl = null;
         OffsetDateTime expiresAt = null;
 
         if (generateSignedUrl) {
             int exp = storageProperties.getSignedUrl().getDefaultExpirationSeconds();
-            signedUrl = storageProvider.generateSignedUrl(entity.getStoragePath(), SignedUrlIntent.VIEW, exp);
-            expiresAt = OffsetDateTime.now().plusSeconds(exp);
+            SignedUrlCache.SignedUrl signed = signUrl(entity.getStoragePath(), SignedUrlIntent.VIEW, exp);
+            signedUrl = signed.url();
+            expiresAt = signed.expiresAt();
             log.debug("Generated signed URL for fileId: {}", entity.getId());
         }
 
@@ -105,12 +310,19 @@ public class FileStorageServiceImpl implements FileStorageService {
     @Transactional(readOnly = true)
     public StoredFileDto getFile(UUID fileId) {
         log.debug("Fetching file with id: {}", fileId);
-        StoredFile entity = repository.findByIdAndIsDeletedFalse(fileId)
+        return findActiveFile(fileId)
                 .orElseThrow(() -> {
                     log.error("File not found with id: {}", fileId);
                     return new NotFoundException("File not found: " + fileId);
                 });
-        return FileMapper.toDto(entity);
+    }
+
+    // The stream is read after this returns, so no transaction (or connection) may be tied to it
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public InputStream openFileContent(StoredFileDto file, long offset, long length) throws IOException {
+        log.debug("Opening content of fileId: {} (offset: {}, length: {})", file.getId(), offset, length);
+        return storageProvider.openStream(file.getStoragePath(), offset, length);
     }
 
     @Override
@@ -123,6 +335,15 @@ public class FileStorageServiceImpl implements FileStorageService {
                 });
         entity.setDeleted(true);
         repository.save(entity);
+        storedObjectRepository.decrementRefCount(entity.getStoragePath());
+        fileChangeOutbox.recordDeleted(entity);
+        usageService.recordDeleted(entity);
+        String storagePath = entity.getStoragePath();
+        afterCommit(() -> {
+            fileMetadataCache.invalidate(fileId);
+            signedUrlCache.invalidate(storagePath);
+            recordWrite(entity);
+        });
         log.debug("File with id: {} marked as deleted", fileId);
     }
 
@@ -130,78 +351,221 @@ public class FileStorageServiceImpl implements FileStorageService {
     @Transactional(readOnly = true)
     public FileSignedUrlResponse generateSignedUrl(UUID fileId, SignedUrlIntent intent, Integer expiresInSeconds) {
         log.debug("Generating signed URL for fileId: {}, intent: {}", fileId, intent);
-        StoredFile entity = repository.findByIdAndIsDeletedFalse(fileId)
+        StoredFileDto file = findActiveFile(fileId)
                 .orElseThrow(() -> {
                     log.error("File not found for signed URL: id: {}", fileId);
                     return new NotFoundException("File not found: " + fileId);
                 });
         int exp = expiresInSeconds != null ? expiresInSeconds : storageProperties.getSignedUrl().getDefaultExpirationSeconds();
-        String url = storageProvider.generateSignedUrl(entity.getStoragePath(), intent, exp);
+        SignedUrlCache.SignedUrl signed = signUrl(file.getStoragePath(), intent, exp);
         log.debug("Signed URL generated for fileId: {}", fileId);
         return FileSignedUrlResponse.builder()
-                .fileId(entity.getId())
-                .url(url)
-                .expiresAt(OffsetDateTime.now().plusSeconds(exp))
+                .fileId(file.getId())
+                .url(signed.url())
+                .expiresAt(signed.expiresAt())
                 .build();
     }
 
     @Override
     @Transactional(readOnly = true)
-    public BulkFileSignedUrlResponse bulkGenerateSignedUrls(List<BulkFileSignedUrlRequestItem> items, Integer expiresInSeconds) {
+    public BulkFileSignedUrlResponse bulkGenerateSignedUrls(List<BulkFileSignedUrlRequestItem> items, Integer expiresInSeconds, boolean partialSuccess) {
         if (items == null || items.isEmpty()) {
             log.error("Empty items list for bulk signed URL generation");
             throw new BadRequestException("Items list must not be empty");
         }
+        if (items.stream().anyMatch(item -> item == null || item.getFileId() == null)) {
+            log.error("Bulk signed URL request contains an item without fileId");
+            throw new BadRequestException("Every item must have a fileId");
+        }
         int exp = expiresInSeconds != null ? expiresInSeconds : storageProperties.getSignedUrl().getDefaultExpirationSeconds();
-        List<BulkFileSignedUrlResponseItem> responses = new ArrayList<>();
-        for (BulkFileSignedUrlRequestItem item : items) {
-            StoredFile entity = repository.findByIdAndIsDeletedFalse(item.getFileId())
-                    .orElseThrow(() -> {
-                        log.error("File not found for bulk signed URL: id: {}", item.getFileId());
-                        return new NotFoundException("File not found: " + item.getFileId());
-                    });
-            String url = storageProvider.generateSignedUrl(entity.getStoragePath(), item.getIntent() == null ? SignedUrlIntent.VIEW : item.getIntent(), exp);
-            responses.add(BulkFileSignedUrlResponseItem.builder()
-                    .fileId(entity.getId())
-                    .url(url)
-                    .expiresAt(OffsetDateTime.now().plusSeconds(exp))
-                    .build());
-            log.debug("Bulk signed URL generated for fileId: {}", entity.getId());
+
+        Set<UUID> fileIds = items.stream()
+                .map(BulkFileSignedUrlRequestItem::getFileId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<UUID, StoredFileDto> filesById = findActiveFilesByIds(fileIds);
+
+        if (!partialSuccess) {
+            for (UUID fileId : fileIds) {
+                if (!filesById.containsKey(fileId)) {
+                    log.error("File not found for bulk signed URL: id: {}", fileId);
+                    throw new NotFoundException("File not found: " + fileId);
+                }
+            }
         }
+
+        // Presigning is local CPU work (SigV4), so large batches are signed in parallel
+        Stream<BulkFileSignedUrlRequestItem> itemStream = items.size() >= PARALLEL_PRESIGN_THRESHOLD
+                ? items.parallelStream()
+                : items.stream();
+        List<BulkFileSignedUrlResponseItem> responses = itemStream
+                .map(item -> {
+                    StoredFileDto file = filesById.get(item.getFileId());
+                    if (file == null) {
+                        return BulkFileSignedUrlResponseItem.builder()
+                                .fileId(item.getFileId())
+                                .error("File not found: " + item.getFileId())
+                                .build();
+                    }
+                    SignedUrlCache.SignedUrl signed = signUrl(file.getStoragePath(), item.getIntent() == null ? SignedUrlIntent.VIEW : item.getIntent(), exp);
+                    return BulkFileSignedUrlResponseItem.builder()
+                            .fileId(file.getId())
+                            .url(signed.url())
+                            .expiresAt(signed.expiresAt())
+                            .build();
+                })
+                .toList();
+        log.debug("Bulk signed URLs generated for {} items ({} files found)", items.size(), filesById.size());
         return BulkFileSignedUrlResponse.builder().items(responses).build();
     }
 
+    private boolean isDedupEnabled(FileContextType contextType) {
+        StorageProperties.DedupProperties dedupProps = storageProperties.getDedup();
+        return dedupProps.isEnabled()
+                && (dedupProps.getContextTypes().isEmpty() || dedupProps.getContextTypes().contains(contextType));
+    }
+
+    private String hashContent(MultipartFile file) {
+        MessageDigest digest = newSha256Digest();
+        try (InputStream content = new DigestInputStream(file.getInputStream(), digest)) {
+            content.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            log.error("Failed to hash file content for '{}'", file.getOriginalFilename(), e);
+            throw new BadRequestException("Unable to read file content: " + e.getMessage());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private SignedUrlCache.SignedUrl signUrl(String storagePath, SignedUrlIntent intent, int expiresInSeconds) {
+        return signedUrlCache.get(storagePath, intent, expiresInSeconds,
+                seconds -> storageProvider.generateSignedUrl(storagePath, intent, seconds));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void recordWrite(StoredFile entity) {
+        readYourWritesTracker.recordFileWrite(entity.getId(), entity.getCreatedByUserId(), entity.getContextType(), entity.getContextRefId());
+    }
+
+    // Read scopes open before the first query: that is when the read-only connection is routed
+    private Optional<StoredFileDto> findActiveFile(UUID fileId) {
+        try (ReadYourWritesTracker.Scope ignored = readYourWritesTracker.forFile(fileId)) {
+            return fileMetadataCache.get(fileId, id -> repository.findByIdAndIsDeletedFalse(id).map(FileMapper::toDto));
+        }
+    }
+
+    /**
+     * Resolves active files for the given ids from the metadata cache, loading the misses with
+     * one IN query per chunk instead of one query per id.
+     */
+    private Map<UUID, StoredFileDto> findActiveFilesByIds(Collection<UUID> fileIds) {
+        Map<UUID, StoredFileDto> filesById = new HashMap<>(fileIds.size() * 2);
+        List<UUID> misses = new ArrayList<>();
+        for (UUID fileId : fileIds) {
+            fileMetadataCache.getIfPresent(fileId).ifPresentOrElse(
+                    file -> filesById.put(fileId, file),
+                    () -> misses.add(fileId));
+        }
+        try (ReadYourWritesTracker.Scope ignored = readYourWritesTracker.forFiles(misses)) {
+            for (int from = 0; from < misses.size(); from += ID_LOOKUP_CHUNK_SIZE) {
+                List<UUID> chunk = misses.subList(from, Math.min(from + ID_LOOKUP_CHUNK_SIZE, misses.size()));
+                for (StoredFile entity : repository.findByIdInAndIsDeletedFalse(chunk)) {
+                    StoredFileDto file = FileMapper.toDto(entity);
+                    fileMetadataCache.put(file);
+                    filesById.put(file.getId(), file);
+                }
+            }
+        }
+        return filesById;
+    }
+
     @Override
     @Transactional(readOnly = true)
-    public FileListResponse listFiles(UUID createdByUserId, FileContextType contextType, String contextRefId, int limit, int offset) {
-        log.debug("Listing files with filters: userId: {}, contextType: {}, contextRefId: {}, limit: {}, offset: {}",
-                createdByUserId, contextType, contextRefId, limit, offset);
+    public FileListResponse listFiles(UUID createdByUserId, FileContextType contextType, String contextRefId, Sort.Direction direction, int limit, int offset) {
+        log.debug("Listing files with filters: userId: {}, contextType: {}, contextRefId: {}, direction: {}, limit: {}, offset: {}",
+                createdByUserId, contextType, contextRefId, direction, limit, offset);
 
-        if (limit <= 0) throw new BadRequestException("limit must be > 0");
-        if (limit > 100) throw new BadRequestException("limit must be <= 100");
+        validateLimit(limit);
         if (offset < 0) throw new BadRequestException("offset must be >= 0");
 
-        int page = offset / limit;
-        PageRequest pr = PageRequest.of(page, limit);
-        Page<StoredFile> result;
-
-        if (createdByUserId != null && contextType != null && contextRefId != null) {
-            result = repository.findByCreatedByUserIdAndContextTypeAndContextRefIdAndIsDeletedFalse(createdByUserId, contextType, contextRefId, pr);
-        } else if (createdByUserId != null && contextType != null) {
-            result = repository.findByCreatedByUserIdAndContextTypeAndIsDeletedFalse(createdByUserId, contextType, pr);
-        } else if (createdByUserId != null) {
-            result = repository.findByCreatedByUserIdAndIsDeletedFalse(createdByUserId, pr);
-        } else if (contextType != null && contextRefId != null) {
-            result = repository.findByContextTypeAndContextRefIdAndIsDeletedFalse(contextType, contextRefId, pr);
-        } else if (contextType != null) {
-            result = repository.findByContextTypeAndIsDeletedFalse(contextType, pr);
-        } else {
-            result = repository.findByIsDeletedFalse(pr);
+        StoredFileFilter filter = new StoredFileFilter(createdByUserId, contextType, contextRefId);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<StoredFileDto> items;
+        long total;
+        try (ReadYourWritesTracker.Scope ignored = readYourWritesTracker.forListing(filter)) {
+            items = repository.findFilesPage(filter, direction, offset, limit);
+            // A short page already determines the total unless it is empty past the first page
+            total = items.size() < limit && (offset == 0 || !items.isEmpty())
+                    ? offset + items.size()
+                    : repository.countFiles(filter);
         }
+        sample.stop(FileMetrics.listQueryTimer(meterRegistry, "offset", filter));
+        log.debug("Returning {} files (total: {})", items.size(), total);
+
+        return FileListResponse.builder().items(items).total(total).build();
+    }
 
-        List<StoredFileDto> items = result.getContent().stream().map(FileMapper::toDto).toList();
-        log.debug("Returning {} files (total: {})", items.size(), result.getTotalElements());
+    @Override
+    @Transactional(readOnly = true)
+    public FileListResponse listFilesAfter(UUID createdByUserId, FileContextType contextType, String contextRefId, Sort.Direction direction, int limit, String cursor, boolean includeTotal) {
+        log.debug("Listing files after cursor with filters: userId: {}, contextType: {}, contextRefId: {}, direction: {}, limit: {}, includeTotal: {}",
+                createdByUserId, contextType, contextRefId, direction, limit, includeTotal);
+
+        validateLimit(limit);
+        ListCursor after = ListCursor.decode(cursor);
+        StoredFileFilter filter = new StoredFileFilter(createdByUserId, contextType, contextRefId);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<StoredFileDto> rows;
+        Long total;
+        try (ReadYourWritesTracker.Scope ignored = readYourWritesTracker.forListing(filter)) {
+            // One extra row tells whether another page exists without counting
+            rows = repository.findFilesAfter(filter, direction,
+                    after != null ? after.createdAt() : null, after != null ? after.id() : null, limit + 1);
+            total = includeTotal ? repository.countFiles(filter) : null;
+        }
+        sample.stop(FileMetrics.listQueryTimer(meterRegistry, "keyset", filter));
+
+        boolean hasNext = rows.size() > limit;
+        List<StoredFileDto> items = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            StoredFileDto last = items.get(items.size() - 1);
+            nextCursor = new ListCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        log.debug("Returning {} files (hasNext: {})", items.size(), hasNext);
+
+        return FileListResponse.builder().items(items).total(total).nextCursor(nextCursor).build();
+    }
+
+    private void validateLimit(int limit) {
+        if (limit <= 0) throw new BadRequestException("limit must be > 0");
+        if (limit > 100) throw new BadRequestException("limit must be <= 100");
+    }
 
-        return FileListResponse.builder().items(items).total(result.getTotalElements()).build();
+    /**
+     * An upload whose content is in storage but whose row is not yet inserted.
+     *
+     * @param sharedObjectId stored object the row deduplicates onto, or {@code null} if the content was stored by this upload
+     * @param dedup          whether the content should be registered for deduplication
+     */
+    private record StagedUpload(StoredFile entity, UUID sharedObjectId, boolean dedup) {
     }
 }
@@ -0,0 +1,24 @@
+package com.dopaminelite.dl_file_storage_service.service;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.dto.UsageResponse;
+import com.dopaminelite.dl_file_storage_service.entity.StoredFile;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Active file counts and bytes per user and per context, kept in counters that change with every
+ * upload and soft delete, and the quotas enforced against them.
+ */
+public interface UsageService {
+    UsageResponse getUsage(UUID createdByUserId, FileContextType contextType, String contextRefId);
+
+    // Rejects an upload of fileCount files totalling sizeBytes that would exceed a quota
+    void checkQuota(UUID createdByUserId, FileContextType contextType, String contextRefId, long fileCount, long sizeBytes);
+
+    // Called inside the transaction that inserts or soft-deletes the files
+    void recordCreated(List<StoredFile> files);
+
+    void recordDeleted(StoredFile file);
+}
@@ -0,0 +1,178 @@
+package com.dopaminelite.dl_file_storage_service.service;
+
+import com.dopaminelite.dl_file_storage_service.config.StorageProperties;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.datasource.ReadYourWritesTracker;
+import com.dopaminelite.dl_file_storage_service.dto.UsageResponse;
+import com.dopaminelite.dl_file_storage_service.entity.StoredFile;
+import com.dopaminelite.dl_file_storage_service.entity.UsageCounter;
+import com.dopaminelite.dl_file_storage_service.exception.BadRequestException;
+import com.dopaminelite.dl_file_storage_service.exception.QuotaExceededException;
+import com.dopaminelite.dl_file_storage_service.repository.StoredFileFilter;
+import com.dopaminelite.dl_file_storage_service.repository.UsageCounterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@Slf4j
+public class UsageServiceImpl implements UsageService {
+
+    private final UsageCounterRepository repository;
+    private final StorageProperties storageProperties;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    @Override
+    public UsageResponse getUsage(UUID createdByUserId, FileContextType contextType, String contextRefId) {
+        boolean userScope = createdByUserId != null;
+        if (userScope == (contextType != null || contextRefId != null)) {
+            throw new BadRequestException("Specify either createdByUserId or contextType with contextRefId");
+        }
+        if (!userScope && (contextType == null || contextRefId == null)) {
+            throw new BadRequestException("contextType and contextRefId are required together");
+        }
+        StorageProperties.QuotaProperties quota = storageProperties.getUsage().getQuota();
+        long maxFiles = userScope ? quota.getMaxFilesPerUser() : quota.getMaxFilesPerContext();
+        long maxBytes = userScope ? quota.getMaxBytesPerUser() : quota.getMaxBytesPerContext();
+
+        Optional<UsageCounter> counter = findCounter(createdByUserId, contextType, contextRefId);
+        return UsageResponse.builder()
+                .createdByUserId(createdByUserId)
+                .contextType(contextType)
+                .contextRefId(contextRefId)
+                .fileCount(counter.map(UsageCounter::getFileCount).orElse(0L))
+                .totalBytes(counter.map(UsageCounter::getTotalBytes).orElse(0L))
+                .maxFiles(quota.isEnabled() && maxFiles > 0 ? maxFiles : null)
+                .maxBytes(quota.isEnabled() && maxBytes > 0 ? maxBytes : null)
+                .updatedAt(counter.map(UsageCounter::getUpdatedAt).orElse(null))
+                .build();
+    }
+
+    /**
+     * Early check against the current counters, so an upload over quota is rejected before its
+     * content is transferred. Concurrent uploads can all pass it; the authoritative check runs
+     * when the counters are incremented in {@link #recordCreated}.
+     */
+    @Override
+    public void checkQuota(UUID createdByUserId, FileContextType contextType, String contextRefId, long fileCount, long sizeBytes) {
+        StorageProperties.UsageProperties usage = storageProperties.getUsage();
+        if (!usage.isEnabled() || !usage.getQuota().isEnabled()) {
+            return;
+        }
+        StorageProperties.QuotaProperties quota = usage.getQuota();
+        if (quota.getMaxFilesPerUser() > 0 || quota.getMaxBytesPerUser() > 0) {
+            Optional<UsageCounter> counter = findCounter(createdByUserId, null, null);
+            requireWithinQuota("user " + createdByUserId,
+                    counter.map(UsageCounter::getFileCount).orElse(0L) + fileCount,
+                    counter.map(UsageCounter::getTotalBytes).orElse(0L) + sizeBytes,
+                    quota.getMaxFilesPerUser(), quota.getMaxBytesPerUser());
+        }
+        if (contextRefId != null && (quota.getMaxFilesPerContext() > 0 || quota.getMaxBytesPerContext() > 0)) {
+            Optional<UsageCounter> counter = findCounter(null, contextType, contextRefId);
+            requireWithinQuota("context " + contextType + "/" + contextRefId,
+                    counter.map(UsageCounter::getFileCount).orElse(0L) + fileCount,
+                    counter.map(UsageCounter::getTotalBytes).orElse(0L) + sizeBytes,
+                    quota.getMaxFilesPerContext(), quota.getMaxBytesPerContext());
+        }
+    }
+
+    /**
+     * Increments the counters of the files' users and contexts. The new totals come back from the
+     * same locking upsert, so exceeding a quota here rolls back the whole upload.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(List<StoredFile> files) {
+        if (!storageProperties.getUsage().isEnabled()) {
+            return;
+        }
+        Map<String, Delta> deltas = new TreeMap<>();
+        for (StoredFile file : files) {
+            addDeltas(deltas, file, 1, file.getSizeBytes());
+        }
+        apply(deltas, storageProperties.getUsage().getQuota().isEnabled());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(StoredFile file) {
+        if (!storageProperties.getUsage().isEnabled()) {
+            return;
+        }
+        Map<String, Delta> deltas = new TreeMap<>();
+        addDeltas(deltas, file, -1, -file.getSizeBytes());
+        apply(deltas, false);
+    }
+
+    private Optional<UsageCounter> findCounter(UUID createdByUserId, FileContextType contextType, String contextRefId) {
+        String scope = createdByUserId != null
+                ? UsageCounter.userScope(createdByUserId)
+                : UsageCounter.contextScope(contextType, contextRefId);
+        try (ReadYourWritesTracker.Scope ignored = readYourWritesTracker.forListing(
+                new StoredFileFilter(createdByUserId, contextType, contextRefId))) {
+            return repository.findById(scope);
+        }
+    }
+
+    private static void addDeltas(Map<String, Delta> deltas, StoredFile file, long files, long bytes) {
+        deltas.merge(UsageCounter.userScope(file.getCreatedByUserId()),
+                new Delta(file.getCreatedByUserId(), null, null, files, bytes), Delta::plus);
+        if (file.getContextRefId() != null) {
+            deltas.merge(UsageCounter.contextScope(file.getContextType(), file.getContextRefId()),
+                    new Delta(null, file.getContextType(), file.getContextRefId(), files, bytes), Delta::plus);
+        }
+    }
+
+    // Counters are updated in scope order, so transactions touching the same rows cannot deadlock
+    private void apply(Map<String, Delta> deltas, boolean enforceQuota) {
+        StorageProperties.QuotaProperties quota = storageProperties.getUsage().getQuota();
+        Instant now = Instant.now();
+        deltas.forEach((scope, delta) -> {
+            UsageCounterRepository.Totals totals;
+            if (delta.userId() != null) {
+                totals = repository.addUserUsage(scope, delta.userId(), delta.files(), delta.bytes(), now);
+                if (enforceQuota) {
+                    requireWithinQuota("user " + delta.userId(), totals.getFileCount(), totals.getTotalBytes(),
+                            quota.getMaxFilesPerUser(), quota.getMaxBytesPerUser());
+                }
+            } else {
+                totals = repository.addContextUsage(scope, delta.contextType().name(), delta.contextRefId(),
+                        delta.files(), delta.bytes(), now);
+                if (enforceQuota) {
+                    requireWithinQuota("context " + delta.contextType() + "/" + delta.contextRefId(),
+                            totals.getFileCount(), totals.getTotalBytes(),
+                            quota.getMaxFilesPerContext(), quota.getMaxBytesPerContext());
+                }
+            }
+            log.debug("Usage of {} is now {} file(s), {} bytes", scope, totals.getFileCount(), totals.getTotalBytes());
+        });
+    }
+
+    private static void requireWithinQuota(String owner, long fileCount, long totalBytes, long maxFiles, long maxBytes) {
+        if (maxFiles > 0 && fileCount > maxFiles) {
+            log.warn("File quota of {} exceeded: {} file(s) > {}", owner, fileCount, maxFiles);
+            throw new QuotaExceededException("File quota exceeded for " + owner + ": at most " + maxFiles + " files");
+        }
+        if (maxBytes > 0 && totalBytes > maxBytes) {
+            log.warn("Storage quota of {} exceeded: {} bytes > {}", owner, totalBytes, maxBytes);
+            throw new QuotaExceededException("Storage quota exceeded for " + owner + ": at most " + maxBytes + " bytes");
+        }
+    }
+
+    private record Delta(UUID userId, FileContextType contextType, String contextRefId, long files, long bytes) {
+        Delta plus(Delta other) {
+            return new Delta(userId, contextType, contextRefId, files + other.files, bytes + other.bytes);
+        }
+    }
+}
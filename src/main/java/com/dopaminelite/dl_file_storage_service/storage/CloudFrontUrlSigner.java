@@ -0,0 +1,142 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * CloudFront signed URLs with a canned policy: the URL and its expiry are signed with the key
+ * group's RSA private key (SHA1withRSA), parsed once at startup and reused for every URL.
+ */
+@Slf4j
+public class CloudFrontUrlSigner implements SignedUrlStrategy {
+
+    // AlgorithmIdentifier of rsaEncryption, used to wrap PKCS#1 keys as PKCS#8
+    private static final byte[] RSA_ALGORITHM_IDENTIFIER = {
+            0x30, 0x0d, 0x06, 0x09, 0x2a, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xf7, 0x0d, 0x01, 0x01, 0x01, 0x05, 0x00
+    };
+
+    private final String baseUrl;
+    private final String keyPairId;
+    private final PrivateKey privateKey;
+    private final Set<SignedUrlIntent> intents;
+    private final Clock clock;
+
+    public CloudFrontUrlSigner(String domain, String keyPairId, PrivateKey privateKey, Set<SignedUrlIntent> intents) {
+        this(domain, keyPairId, privateKey, intents, Clock.systemUTC());
+    }
+
+    CloudFrontUrlSigner(String domain, String keyPairId, PrivateKey privateKey, Set<SignedUrlIntent> intents, Clock clock) {
+        String base = domain.contains("://") ? domain : "https://" + domain;
+        this.baseUrl = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        this.keyPairId = keyPairId;
+        this.privateKey = privateKey;
+        this.intents = Set.copyOf(intents);
+        this.clock = clock;
+        log.info("CloudFront URL signing enabled for {} (key pair: {}, intents: {})", baseUrl, keyPairId, this.intents);
+    }
+
+    @Override
+    public boolean supports(SignedUrlIntent intent) {
+        return intents.contains(intent);
+    }
+
+    @Override
+    public String sign(String storagePath, SignedUrlIntent intent, int expiresInSeconds) {
+        String resourceUrl = baseUrl + "/" + encodePath(storagePath);
+        long expires = clock.instant().getEpochSecond() + expiresInSeconds;
+        String policy = "{\"Statement\":[{\"Resource\":\"" + resourceUrl
+                + "\",\"Condition\":{\"DateLessThan\":{\"AWS:EpochTime\":" + expires + "}}}]}";
+        try {
+            // Signature instances are not thread-safe; creating one is cheap next to the RSA operation
+            Signature signature = Signature.getInstance("SHA1withRSA");
+            signature.initSign(privateKey);
+            signature.update(policy.getBytes(StandardCharsets.UTF_8));
+            String signedUrl = resourceUrl + "?Expires=" + expires
+                    + "&Signature=" + urlSafeBase64(signature.sign())
+                    + "&Key-Pair-Id=" + keyPairId;
+            log.debug("Generated CloudFront signed URL for key='{}', intent: {}, expiresInSeconds: {}",
+                    storagePath, intent, expiresInSeconds);
+            return signedUrl;
+        } catch (GeneralSecurityException e) {
+            log.error("Failed to generate CloudFront signed URL for key='{}'", storagePath, e);
+            throw new IllegalStateException("Failed to generate signed URL: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses a PEM RSA private key, either PKCS#8 ({@code BEGIN PRIVATE KEY}) or PKCS#1
+     * ({@code BEGIN RSA PRIVATE KEY}, as produced for CloudFront key pairs by {@code openssl genrsa}).
+     */
+    public static PrivateKey parsePrivateKey(String pem) {
+        boolean pkcs1 = pem.contains("BEGIN RSA PRIVATE KEY");
+        String base64 = pem.replaceAll("-----(BEGIN|END)[A-Z ]+-----", "").replaceAll("\\s", "");
+        try {
+            byte[] der = Base64.getDecoder().decode(base64);
+            byte[] pkcs8 = pkcs1 ? wrapPkcs1(der) : der;
+            return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(pkcs8));
+        } catch (IllegalArgumentException | GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid CloudFront private key: " + e.getMessage(), e);
+        }
+    }
+
+    // PrivateKeyInfo ::= SEQUENCE { version INTEGER 0, algorithm AlgorithmIdentifier, privateKey OCTET STRING }
+    private static byte[] wrapPkcs1(byte[] pkcs1) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(new byte[]{0x02, 0x01, 0x00});
+        body.writeBytes(RSA_ALGORITHM_IDENTIFIER);
+        body.write(0x04);
+        writeDerLength(body, pkcs1.length);
+        body.writeBytes(pkcs1);
+
+        ByteArrayOutputStream sequence = new ByteArrayOutputStream();
+        sequence.write(0x30);
+        writeDerLength(sequence, body.size());
+        sequence.writeBytes(body.toByteArray());
+        return sequence.toByteArray();
+    }
+
+    private static void writeDerLength(ByteArrayOutputStream out, int length) {
+        if (length < 0x80) {
+            out.write(length);
+            return;
+        }
+        int bytes = (Integer.SIZE - Integer.numberOfLeadingZeros(length) + 7) / 8;
+        out.write(0x80 | bytes);
+        for (int i = bytes - 1; i >= 0; i--) {
+            out.write(length >>> (8 * i));
+        }
+    }
+
+    // CloudFront's URL-safe Base64 variant: '+' -> '-', '=' -> '_', '/' -> '~'
+    private static String urlSafeBase64(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes)
+                .replace('+', '-')
+                .replace('=', '_')
+                .replace('/', '~');
+    }
+
+    // The signed resource must match the requested URL exactly, so each segment is encoded once here
+    private static String encodePath(String storagePath) {
+        String[] segments = storagePath.split("/", -1);
+        StringBuilder encoded = new StringBuilder(storagePath.length() + 16);
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                encoded.append('/');
+            }
+            encoded.append(URLEncoder.encode(segments[i], StandardCharsets.UTF_8).replace("+", "%20"));
+        }
+        return encoded.toString();
+    }
+}
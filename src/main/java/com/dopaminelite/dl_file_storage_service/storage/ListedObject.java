@@ -0,0 +1,6 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+import java.time.Instant;
+
+public record ListedObject(String storagePath, long sizeBytes, Instant lastModified) {
+}
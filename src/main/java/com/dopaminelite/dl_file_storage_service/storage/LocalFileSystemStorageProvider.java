@@ -0,0 +1,200 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * {@link StorageProvider} on the local filesystem, for on-prem deployments and test rigs.
+ * <p>
+ * Objects are addressed by the SHA-256 of their storage path and sharded into two directory
+ * levels ({@code ab/cd/abcd...}) to keep directories small. Writes go through a
+ * {@link FileChannel} into a temporary file that is atomically renamed into place once complete,
+ * so readers never observe partial objects. Reads use {@link FileChannel#transferTo}.
+ * Signed URLs point at the built-in {@code /api/v1/files/local-content} endpoint and carry an
+ * HMAC-SHA256 signature over path, intent and expiry. Keys with {@code .}, {@code ..} or empty
+ * segments are rejected.
+ */
+@Slf4j
+public class LocalFileSystemStorageProvider implements StorageProvider {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String CONTENT_ENDPOINT = "/api/v1/files/local-content";
+
+    private final Path rootDir;
+    private final Path tempDir;
+    private final String publicBaseUrl;
+    private final SecretKeySpec signingKey;
+
+    public LocalFileSystemStorageProvider(Path rootDir, String publicBaseUrl, String signingSecret) throws IOException {
+        this.rootDir = rootDir.toAbsolutePath().normalize();
+        // Same filesystem as the objects, so the final rename can be atomic
+        this.tempDir = this.rootDir.resolve(".tmp");
+        Files.createDirectories(tempDir);
+        this.publicBaseUrl = publicBaseUrl.endsWith("/") ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1) : publicBaseUrl;
+        this.signingKey = new SecretKeySpec(signingSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        log.info("LocalFileSystemStorageProvider initialized with root: {}", this.rootDir);
+    }
+
+    @Override
+    public String store(InputStream content, long contentLength, String storedFileName, String bucketPath) throws IOException {
+        String storagePath = resolveStoragePath(storedFileName, bucketPath);
+        Path target = physicalPath(storagePath);
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 ReadableByteChannel in = Channels.newChannel(content)) {
+                long written = 0;
+                while (written < contentLength) {
+                    long transferred = out.transferFrom(in, written, contentLength - written);
+                    if (transferred <= 0) {
+                        throw new EOFException("Stream ended after " + written + " of " + contentLength + " bytes");
+                    }
+                    written += transferred;
+                }
+                out.force(true);
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Stored file '{}' at '{}' ({})", storedFileName, storagePath, target);
+            return storagePath;
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            log.error("Failed to store file '{}' on local filesystem", storedFileName, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public String generateSignedUrl(String storagePath, SignedUrlIntent intent, int expiresInSeconds) {
+        long expires = Instant.now().getEpochSecond() + expiresInSeconds;
+        String signature = sign(storagePath, intent, expires);
+        return publicBaseUrl + CONTENT_ENDPOINT
+                + "?path=" + URLEncoder.encode(storagePath, StandardCharsets.UTF_8)
+                + "&intent=" + intent
+                + "&expires=" + expires
+                + "&signature=" + signature;
+    }
+
+    @Override
+    public void delete(String storagePath) throws IOException {
+        if (Files.deleteIfExists(physicalPath(storagePath))) {
+            log.debug("Deleted local object '{}'", storagePath);
+        }
+    }
+
+    @Override
+    public InputStream openStream(String storagePath, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(physicalPath(storagePath), StandardOpenOption.READ);
+        try {
+            channel.position(offset);
+            return Channels.newInputStream(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<StoredObjectMetadata> headObject(String storagePath) {
+        try {
+            return Optional.of(new StoredObjectMetadata(Files.size(physicalPath(storagePath)), null, null));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read metadata for '" + storagePath + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks a signature produced by {@link #generateSignedUrl} and that it has not expired.
+     */
+    public boolean verifySignedUrl(String storagePath, SignedUrlIntent intent, long expires, String signature) {
+        if (signature == null || expires < Instant.now().getEpochSecond() || !isValidStoragePath(storagePath)) {
+            return false;
+        }
+        byte[] expected = sign(storagePath, intent, expires).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Copies {@code count} bytes starting at {@code position} to {@code target} with
+     * {@link FileChannel#transferTo}, letting the kernel move the data where the target allows it.
+     */
+    public long transferTo(String storagePath, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel in = FileChannel.open(physicalPath(storagePath), StandardOpenOption.READ)) {
+            long end = Math.min(in.size(), position + count);
+            long offset = position;
+            while (offset < end) {
+                long transferred = in.transferTo(offset, end - offset, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                offset += transferred;
+            }
+            return offset - position;
+        }
+    }
+
+    private Path physicalPath(String storagePath) {
+        if (!isValidStoragePath(storagePath)) {
+            throw new IllegalArgumentException("Invalid storage path: " + storagePath);
+        }
+        String hash = HexFormat.of().formatHex(sha256(storagePath));
+        return rootDir.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    // Relative keys only; '.', '..' and empty segments never come out of resolveStoragePath
+    private static boolean isValidStoragePath(String storagePath) {
+        if (storagePath == null || storagePath.isEmpty() || storagePath.indexOf('\\') >= 0 || storagePath.indexOf('\0') >= 0) {
+            return false;
+        }
+        for (String segment : storagePath.split("/", -1)) {
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String sign(String storagePath, SignedUrlIntent intent, long expires) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            byte[] signature = mac.doFinal((storagePath + "\n" + intent + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign local storage URL", e);
+        }
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Decorates a {@link StorageProvider} with a {@code storage.operation} timer per call, tagged by
+ * operation, provider, bucket (first segment of the storage path) and outcome.
+ */
+public class MeteredStorageProvider implements StorageProvider {
+
+    static final String TIMER_NAME = "storage.operation";
+
+    private final StorageProvider delegate;
+    private final MeterRegistry meterRegistry;
+    private final String providerName;
+
+    public MeteredStorageProvider(StorageProvider delegate, MeterRegistry meterRegistry, String providerName) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.providerName = providerName;
+    }
+
+    @Override
+    public String store(InputStream content, long contentLength, String storedFileName, String bucketPath) throws IOException {
+        return recordIo("store", storeBucketOf(storedFileName, bucketPath),
+                () -> delegate.store(content, contentLength, storedFileName, bucketPath));
+    }
+
+    @Override
+    public String store(byte[] content, String storedFileName, String bucketPath) throws IOException {
+        return recordIo("store", storeBucketOf(storedFileName, bucketPath),
+                () -> delegate.store(content, storedFileName, bucketPath));
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public String generateSignedUrl(String storagePath, SignedUrlIntent intent, int expiresInSeconds) {
+        return record("presign", bucketOf(storagePath), () -> delegate.generateSignedUrl(storagePath, intent, expiresInSeconds));
+    }
+
+    @Override
+    public void delete(String storagePath) throws IOException {
+        recordIo("delete", bucketOf(storagePath), () -> {
+            delegate.delete(storagePath);
+            return null;
+        });
+    }
+
+    @Override
+    public Set<String> deleteAll(List<String> storagePaths) {
+        String bucket = storagePaths.isEmpty() ? "none" : bucketOf(storagePaths.get(0));
+        return record("delete_batch", bucket, () -> delegate.deleteAll(storagePaths));
+    }
+
+    @Override
+    public boolean supportsListing() {
+        return delegate.supportsListing();
+    }
+
+    @Override
+    public ObjectListing listObjects(String prefix, String startAfter, int maxKeys) {
+        return record("list", bucketOf(prefix), () -> delegate.listObjects(prefix, startAfter, maxKeys));
+    }
+
+    @Override
+    public InputStream openStream(String storagePath, long offset, long length) throws IOException {
+        // Times until the first byte is available, not the whole transfer
+        return recordIo("open", bucketOf(storagePath), () -> delegate.openStream(storagePath, offset, length));
+    }
+
+    @Override
+    public String resolveStoragePath(String storedFileName, String bucketPath) {
+        return delegate.resolveStoragePath(storedFileName, bucketPath);
+    }
+
+    @Override
+    public boolean supportsDirectUpload() {
+        return delegate.supportsDirectUpload();
+    }
+
+    @Override
+    public PresignedUpload presignUpload(String storagePath, String contentType, long contentLength,
+                                         String checksumSha256Base64, int expiresInSeconds) {
+        return record("presign_upload", bucketOf(storagePath),
+                () -> delegate.presignUpload(storagePath, contentType, contentLength, checksumSha256Base64, expiresInSeconds));
+    }
+
+    @Override
+    public String createMultipartUpload(String storagePath, String contentType) {
+        return record("create_multipart", bucketOf(storagePath), () -> delegate.createMultipartUpload(storagePath, contentType));
+    }
+
+    @Override
+    public String presignUploadPart(String storagePath, String uploadId, int partNumber, int expiresInSeconds) {
+        return record("presign_upload_part", bucketOf(storagePath),
+                () -> delegate.presignUploadPart(storagePath, uploadId, partNumber, expiresInSeconds));
+    }
+
+    @Override
+    public void completeMultipartUpload(String storagePath, String uploadId, List<UploadedPart> parts) {
+        record("complete_multipart", bucketOf(storagePath), () -> {
+            delegate.completeMultipartUpload(storagePath, uploadId, parts);
+            return null;
+        });
+    }
+
+    @Override
+    public void abortMultipartUpload(String storagePath, String uploadId) {
+        record("abort_multipart", bucketOf(storagePath), () -> {
+            delegate.abortMultipartUpload(storagePath, uploadId);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<StoredObjectMetadata> headObject(String storagePath) {
+        return record("head", bucketOf(storagePath), () -> delegate.headObject(storagePath));
+    }
+
+    @Override
+    public <T extends StorageProvider> Optional<T> unwrap(Class<T> type) {
+        return delegate.unwrap(type);
+    }
+
+    private <T> T record(String operation, String bucket, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean success = false;
+        try {
+            T result = call.get();
+            success = true;
+            return result;
+        } finally {
+            sample.stop(timer(operation, bucket, success));
+        }
+    }
+
+    private <T> T recordIo(String operation, String bucket, IoCall<T> call) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean success = false;
+        try {
+            T result = call.get();
+            success = true;
+            return result;
+        } finally {
+            sample.stop(timer(operation, bucket, success));
+        }
+    }
+
+    private Timer timer(String operation, String bucket, boolean success) {
+        return Timer.builder(TIMER_NAME)
+                .description("Latency of storage provider calls")
+                .tag("operation", operation)
+                .tag("provider", providerName)
+                .tag("bucket", bucket)
+                .tag("outcome", success ? "success" : "error")
+                .register(meterRegistry);
+    }
+
+    // The bucket path carries the hash prefix of the key layout; tag only its first segment, as for other calls
+    private String storeBucketOf(String storedFileName, String bucketPath) {
+        return bucketOf(delegate.resolveStoragePath(storedFileName, bucketPath));
+    }
+
+    private static String bucketOf(String storagePath) {
+        int slash = storagePath.indexOf('/');
+        return slash > 0 ? storagePath.substring(0, slash) : "none";
+    }
+
+    @FunctionalInterface
+    private interface IoCall<T> {
+        T get() throws IOException;
+    }
+}
@@ -0,0 +1,111 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.constant.KeyLayoutMode;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Decides where new objects are written. The hashed layout fans each context type out over
+ * {@code 16^prefixHexChars} key prefixes (and optionally several buckets) derived from the object
+ * id, so request rates scale with the number of prefixes instead of being capped by one, and
+ * stores a sanitized, length-bounded form of the client's file name.
+ * <p>
+ * Only new keys depend on the layout: stored paths are used as-is, so objects written under an
+ * earlier layout keep resolving.
+ */
+public class ObjectKeyLayout {
+
+    private static final Pattern UNSAFE_NAME_CHARS = Pattern.compile("[^A-Za-z0-9._-]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final int MAX_EXTENSION_LENGTH = 16;
+
+    private final KeyLayoutMode mode;
+    private final int prefixHexChars;
+    private final int maxNameLength;
+    // Storage path qualifiers of the buckets new objects are spread across; "" is the default bucket
+    private final List<String> bucketQualifiers;
+
+    public ObjectKeyLayout(KeyLayoutMode mode, int prefixHexChars, int maxNameLength,
+                           List<String> buckets, String defaultBucket) {
+        if (prefixHexChars < 0 || prefixHexChars > 8) {
+            throw new IllegalStateException("Key prefix length must be between 0 and 8 hex characters");
+        }
+        this.mode = mode;
+        this.prefixHexChars = prefixHexChars;
+        this.maxNameLength = Math.max(maxNameLength, 1);
+        List<String> qualifiers = new ArrayList<>();
+        for (String bucket : buckets) {
+            qualifiers.add(bucket.equals(defaultBucket) ? "" : bucket + ":");
+        }
+        this.bucketQualifiers = qualifiers.isEmpty() ? List.of("") : List.copyOf(qualifiers);
+    }
+
+    /**
+     * Stored file name and bucket path for a new object; the provider joins them into the key.
+     */
+    public ObjectKey newObjectKey(FileContextType contextType, String originalFileName) {
+        UUID objectId = UUID.randomUUID();
+        String context = contextType.name().toLowerCase();
+        if (mode == KeyLayoutMode.LEGACY) {
+            return new ObjectKey(objectId + "_" + originalFileName, context);
+        }
+
+        long hash = mix(objectId.getMostSignificantBits() ^ objectId.getLeastSignificantBits());
+        String qualifier = bucketQualifiers.get((int) Long.remainderUnsigned(hash, bucketQualifiers.size()));
+        String bucketPath = qualifier + context;
+        if (prefixHexChars > 0) {
+            // Top bits for the prefix, so it stays independent of the bucket choice above
+            String hex = String.format("%016x", hash);
+            bucketPath += "/" + hex.substring(0, prefixHexChars);
+        }
+        return new ObjectKey(objectId + "_" + sanitize(originalFileName), bucketPath);
+    }
+
+    /**
+     * Key prefixes holding a context type's objects, one per bucket, for listing them in key order.
+     */
+    public List<String> listingPrefixes(FileContextType contextType) {
+        String context = contextType.name().toLowerCase() + "/";
+        return bucketQualifiers.stream().map(qualifier -> qualifier + context).toList();
+    }
+
+    // Keeps [A-Za-z0-9._-], drops accents and any client-side directory, and bounds the length
+    // while preserving a short extension
+    String sanitize(String originalFileName) {
+        String name = originalFileName == null ? "" : originalFileName;
+        name = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+        name = COMBINING_MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFKD)).replaceAll("");
+        name = UNSAFE_NAME_CHARS.matcher(name).replaceAll("_");
+        // No leading dots: no hidden files, no "." or ".." segments
+        name = name.replaceAll("^\\.+", "");
+        if (name.replaceAll("[._-]", "").isEmpty()) {
+            return "file";
+        }
+        if (name.length() <= maxNameLength) {
+            return name;
+        }
+        int dot = name.lastIndexOf('.');
+        String extension = dot > 0 && name.length() - dot <= MAX_EXTENSION_LENGTH && name.length() - dot < maxNameLength
+                ? name.substring(dot)
+                : "";
+        return name.substring(0, maxNameLength - extension.length()) + extension;
+    }
+
+    // MurmurHash3 finalizer: spreads every input bit over the whole word
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    public record ObjectKey(String storedFileName, String bucketPath) {
+    }
+}
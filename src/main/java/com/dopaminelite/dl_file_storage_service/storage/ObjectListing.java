@@ -0,0 +1,9 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+import java.util.List;
+
+/**
+ * One page of a key-ordered object listing; {@code truncated} means more objects follow the last one.
+ */
+public record ObjectListing(List<ListedObject> objects, boolean truncated) {
+}
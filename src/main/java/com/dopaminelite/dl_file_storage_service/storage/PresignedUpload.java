@@ -0,0 +1,10 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Presigned PUT request: the client must send exactly these headers with the upload.
+ */
+public record PresignedUpload(String url, Map<String, List<String>> signedHeaders) {
+}
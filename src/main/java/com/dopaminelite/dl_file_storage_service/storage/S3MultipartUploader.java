@@ -0,0 +1,233 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Uploads a stream as an S3 multipart upload. Parts are read sequentially from the stream and
+ * sent concurrently, at most {@code maxConcurrency} per upload. Part buffers come from a pool
+ * shared by all uploads and are reused, so part memory is bounded process-wide by
+ * {@code maxBufferedParts * partSizeBytes} however many uploads run at once.
+ */
+@Slf4j
+public class S3MultipartUploader implements AutoCloseable {
+
+    // S3 rejects non-final parts smaller than 5 MiB and uploads with more than 10,000 parts
+    private static final long MIN_PART_SIZE_BYTES = 5L * 1024 * 1024;
+    private static final int MAX_PARTS = 10_000;
+    private static final long RETRY_BACKOFF_MILLIS = 200;
+
+    private final S3Client s3Client;
+    private final long partSizeBytes;
+    private final int maxConcurrency;
+    private final int maxPartAttempts;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Buffers of partSizeBytes, allocated on first use and handed back after each part
+    private final Semaphore bufferPermits;
+    private final BlockingQueue<byte[]> freeBuffers = new LinkedBlockingQueue<>();
+
+    public S3MultipartUploader(S3Client s3Client, long partSizeBytes, int maxConcurrency, int maxPartAttempts,
+                               int maxBufferedParts) {
+        if (partSizeBytes < MIN_PART_SIZE_BYTES || partSizeBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Multipart part size must be between " + MIN_PART_SIZE_BYTES
+                    + " and " + Integer.MAX_VALUE + " bytes");
+        }
+        if (maxConcurrency < 1 || maxPartAttempts < 1 || maxBufferedParts < 1) {
+            throw new IllegalArgumentException("Multipart concurrency, part attempts and buffered parts must be >= 1");
+        }
+        this.s3Client = s3Client;
+        this.partSizeBytes = partSizeBytes;
+        this.maxConcurrency = maxConcurrency;
+        this.maxPartAttempts = maxPartAttempts;
+        this.bufferPermits = new Semaphore(maxBufferedParts, true);
+    }
+
+    public void upload(String bucket, String key, InputStream content, long contentLength) throws IOException {
+        long partSize = Math.max(partSizeBytes, ceilDiv(contentLength, MAX_PARTS));
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build()).uploadId();
+        log.debug("Started multipart upload '{}' for key '{}' ({} bytes, part size {})", uploadId, key, contentLength, partSize);
+
+        Semaphore inFlight = new Semaphore(maxConcurrency);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Future<CompletedPart>> futures = new ArrayList<>();
+        try {
+            long remaining = contentLength;
+            int partNumber = 1;
+            while (remaining > 0 && failure.get() == null) {
+                int size = (int) Math.min(partSize, remaining);
+                inFlight.acquire();
+                byte[] buffer;
+                try {
+                    buffer = acquireBuffer(size);
+                } catch (InterruptedException e) {
+                    inFlight.release();
+                    throw e;
+                }
+                int read;
+                try {
+                    read = content.readNBytes(buffer, 0, size);
+                } catch (IOException e) {
+                    releaseBuffer(buffer);
+                    inFlight.release();
+                    throw e;
+                }
+                if (read != size) {
+                    releaseBuffer(buffer);
+                    inFlight.release();
+                    throw new EOFException("Stream ended after " + (contentLength - remaining + read)
+                            + " of " + contentLength + " bytes");
+                }
+                int currentPart = partNumber;
+                futures.add(executor.submit(() -> {
+                    try {
+                        if (failure.get() != null) {
+                            throw new CancellationException("Multipart upload '" + uploadId + "' already failed");
+                        }
+                        return uploadPart(bucket, key, uploadId, currentPart, buffer, size);
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                        throw e;
+                    } finally {
+                        releaseBuffer(buffer);
+                        inFlight.release();
+                    }
+                }));
+                remaining -= size;
+                partNumber++;
+            }
+
+            List<CompletedPart> parts = new ArrayList<>(futures.size());
+            for (Future<CompletedPart> future : futures) {
+                parts.add(future.get());
+            }
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+            log.debug("Completed multipart upload '{}' for key '{}' with {} parts", uploadId, key, parts.size());
+        } catch (Exception e) {
+            // Parts still running are awaited rather than cancelled, so every buffer is returned
+            failure.compareAndSet(null, e);
+            awaitQuietly(futures);
+            abort(bucket, key, uploadId);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Multipart upload failed for key '" + key + "': " + cause.getMessage(), cause);
+        }
+    }
+
+    private CompletedPart uploadPart(String bucket, String key, String uploadId, int partNumber, byte[] data, int length)
+            throws InterruptedException {
+        UploadPartRequest request = UploadPartRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength((long) length)
+                .build();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // Content provider avoids the defensive copy RequestBody.fromBytes would make
+                UploadPartResponse response = s3Client.uploadPart(request,
+                        RequestBody.fromContentProvider(() -> new ByteArrayInputStream(data, 0, length), length, "application/octet-stream"));
+                return CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build();
+            } catch (SdkException e) {
+                if (attempt >= maxPartAttempts) {
+                    log.error("Part {} of multipart upload '{}' failed after {} attempts", partNumber, uploadId, attempt, e);
+                    throw e;
+                }
+                log.warn("Retrying part {} of multipart upload '{}' (attempt {} failed: {})",
+                        partNumber, uploadId, attempt, e.getMessage());
+                Thread.sleep(RETRY_BACKOFF_MILLIS << (attempt - 1));
+            }
+        }
+    }
+
+    // Parts larger than the pooled size (objects over 10,000 default parts) get a one-off buffer
+    private byte[] acquireBuffer(int size) throws InterruptedException {
+        bufferPermits.acquire();
+        if (size > partSizeBytes) {
+            return new byte[size];
+        }
+        byte[] buffer = freeBuffers.poll();
+        return buffer != null ? buffer : new byte[(int) partSizeBytes];
+    }
+
+    private void releaseBuffer(byte[] buffer) {
+        if (buffer.length == partSizeBytes) {
+            freeBuffers.offer(buffer);
+        }
+        bufferPermits.release();
+    }
+
+    private static void awaitQuietly(List<Future<CompletedPart>> futures) {
+        for (Future<CompletedPart> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | CancellationException e) {
+                // Already reported through the upload's failure
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private void abort(String bucket, String key, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+            log.warn("Aborted multipart upload '{}' for key '{}'", uploadId, key);
+        } catch (Exception e) {
+            log.error("Failed to abort multipart upload '{}' for key '{}'", uploadId, key, e);
+        }
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return (x + y - 1) / y;
+    }
+}
@@ -0,0 +1,41 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+/**
+ * Bucket and key addressed by a storage path. Paths in the provider's default bucket are plain
+ * keys (as all paths written before multi-bucket layouts are); paths in other buckets are
+ * qualified as {@code bucket:key}. Bucket names cannot contain ':' or '/', so a ':' before the
+ * first '/' unambiguously marks a qualifier.
+ */
+record S3ObjectLocation(String bucket, String key) {
+
+    private static final char BUCKET_SEPARATOR = ':';
+
+    static S3ObjectLocation of(String storagePath, String defaultBucket) {
+        int separator = qualifierEnd(storagePath);
+        if (separator < 0) {
+            return new S3ObjectLocation(defaultBucket, storagePath);
+        }
+        return new S3ObjectLocation(storagePath.substring(0, separator), storagePath.substring(separator + 1));
+    }
+
+    static boolean isQualified(String storagePath) {
+        return qualifierEnd(storagePath) >= 0;
+    }
+
+    /**
+     * Storage path of {@code key} in {@code bucket}, unqualified for the default bucket.
+     */
+    static String storagePath(String bucket, String key, String defaultBucket) {
+        return bucket.equals(defaultBucket) ? key : bucket + BUCKET_SEPARATOR + key;
+    }
+
+    String storagePath(String defaultBucket) {
+        return storagePath(bucket, key, defaultBucket);
+    }
+
+    private static int qualifierEnd(String storagePath) {
+        int separator = storagePath.indexOf(BUCKET_SEPARATOR);
+        int slash = storagePath.indexOf('/');
+        return separator > 0 && (slash < 0 || separator < slash) ? separator : -1;
+    }
+}
@@ -4,44 +4,91 @@ import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
 import lombok.extern.slf4j.Slf4j;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
-import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
-import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 
 import java.io.IOException;
-import java.time.Duration;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 public class S3StorageProvider implements StorageProvider {
 
+    // Maximum number of keys in one DeleteObjects request
+    static final int DELETE_OBJECTS_LIMIT = 1000;
+
     private final S3Client s3Client;
-    private final S3Presigner s3Presigner;
+    private final S3UrlSigner urlSigner;
+    // Optional CDN signing for download URLs; null presigns every URL against S3
+    private final SignedUrlStrategy cdnUrlSigner;
     private final String bucketName;
+    private final S3MultipartUploader multipartUploader;
+    private final long multipartThresholdBytes;
 
     public S3StorageProvider(S3Client s3Client, S3Presigner s3Presigner, String bucketName) {
+        this(s3Client, s3Presigner, bucketName, null, Long.MAX_VALUE, null);
+    }
+
+    public S3StorageProvider(S3Client s3Client, S3Presigner s3Presigner, String bucketName,
+                             S3MultipartUploader multipartUploader, long multipartThresholdBytes,
+                             SignedUrlStrategy cdnUrlSigner) {
         this.s3Client = s3Client;
-        this.s3Presigner = s3Presigner;
+        this.urlSigner = new S3UrlSigner(s3Presigner, bucketName);
+        this.cdnUrlSigner = cdnUrlSigner;
         this.bucketName = bucketName;
-        log.info("S3StorageProvider initialized with bucket: {}", bucketName);
+        this.multipartUploader = multipartUploader;
+        this.multipartThresholdBytes = multipartThresholdBytes;
+        log.info("S3StorageProvider initialized with bucket: {}, multipart: {}", bucketName,
+                multipartUploader != null ? "above " + multipartThresholdBytes + " bytes" : "disabled");
     }
 
     @Override
-    public String store(byte[] content, String storedFileName, String bucketPath) throws IOException {
+    public String store(InputStream content, long contentLength, String storedFileName, String bucketPath) throws IOException {
         try {
-            // Create S3 key in format: bucketPath/storedFileName
-            String s3Key = bucketPath + "/" + storedFileName;
+            String storagePath = resolveStoragePath(storedFileName, bucketPath);
+            S3ObjectLocation location = locate(storagePath);
+
+            if (multipartUploader != null && contentLength >= multipartThresholdBytes) {
+                multipartUploader.upload(location.bucket(), location.key(), content, contentLength);
+                log.debug("Stored file '{}' in S3 bucket '{}' with key '{}' (multipart)", storedFileName, location.bucket(), location.key());
+                return storagePath;
+            }
 
             PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(s3Key)
+                    .bucket(location.bucket())
+                    .key(location.key())
+                    .contentLength(contentLength)
                     .build();
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(content));
+            // Streams from the part in small chunks; the SDK only keeps a bounded mark buffer for retries
+            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(content, contentLength));
 
-            log.debug("Stored file '{}' in S3 bucket '{}' with key '{}'", storedFileName, bucketName, s3Key);
-            return s3Key;
+            log.debug("Stored file '{}' in S3 bucket '{}' with key '{}'", storedFileName, location.bucket(), location.key());
+            return storagePath;
         } catch (Exception e) {
             log.error("Failed to store file '{}' in S3 bucket '{}'", storedFileName, bucketName, e);
             throw new IOException("Failed to store file in S3: " + e.getMessage(), e);
@@ -50,27 +97,198 @@ public class S3StorageProvider implements StorageProvider {
 
     @Override
     public String generateSignedUrl(String storagePath, SignedUrlIntent intent, int expiresInSeconds) {
+        // The CDN fronts the default bucket only
+        if (cdnUrlSigner != null && cdnUrlSigner.supports(intent) && !S3ObjectLocation.isQualified(storagePath)) {
+            return cdnUrlSigner.sign(storagePath, intent, expiresInSeconds);
+        }
+        return urlSigner.presignGet(storagePath, intent, expiresInSeconds);
+    }
+
+    @Override
+    public void delete(String storagePath) throws IOException {
+        S3ObjectLocation location = locate(storagePath);
         try {
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(storagePath)
-                    .build();
+            s3Client.deleteObject(DeleteObjectRequest.builder().bucket(location.bucket()).key(location.key()).build());
+            log.debug("Deleted S3 object '{}' from bucket '{}'", location.key(), location.bucket());
+        } catch (Exception e) {
+            log.error("Failed to delete S3 object '{}' from bucket '{}'", location.key(), location.bucket(), e);
+            throw new IOException("Failed to delete file from S3: " + e.getMessage(), e);
+        }
+    }
 
-            GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                    .signatureDuration(Duration.ofSeconds(expiresInSeconds))
-                    .getObjectRequest(getObjectRequest)
-                    .build();
+    @Override
+    public Set<String> deleteAll(List<String> storagePaths) {
+        Set<String> failed = new HashSet<>();
+        keysByBucket(storagePaths, bucketName).forEach((bucket, bucketKeys) -> {
+            for (int from = 0; from < bucketKeys.size(); from += DELETE_OBJECTS_LIMIT) {
+                List<String> keys = bucketKeys.subList(from, Math.min(from + DELETE_OBJECTS_LIMIT, bucketKeys.size()));
+                try {
+                    DeleteObjectsResponse response = s3Client.deleteObjects(deleteObjectsRequest(bucket, keys));
+                    failed.addAll(failedPaths(response, bucket, bucketName));
+                } catch (Exception e) {
+                    log.error("Failed to delete {} S3 objects from bucket '{}'", keys.size(), bucket, e);
+                    keys.forEach(key -> failed.add(S3ObjectLocation.storagePath(bucket, key, bucketName)));
+                }
+            }
+        });
+        return failed;
+    }
 
-            PresignedGetObjectRequest presignedRequest = s3Presigner.presignGetObject(presignRequest);
-            String signedUrl = presignedRequest.url().toString();
+    @Override
+    public boolean supportsListing() {
+        return true;
+    }
 
-            log.debug("Generated S3 signed URL for key='{}', intent: {}, expiresInSeconds: {}",
-                    storagePath, intent, expiresInSeconds);
-            return signedUrl;
+    @Override
+    public ObjectListing listObjects(String prefix, String startAfter, int maxKeys) {
+        S3ObjectLocation location = locate(prefix);
+        return toObjectListing(s3Client.listObjectsV2(listObjectsRequest(location, startAfter, maxKeys)),
+                location.bucket(), bucketName);
+    }
+
+    @Override
+    public InputStream openStream(String storagePath, long offset, long length) throws IOException {
+        try {
+            S3ObjectLocation location = locate(storagePath);
+            return s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(location.bucket())
+                    .key(location.key())
+                    .range(byteRange(offset, length))
+                    .build());
         } catch (Exception e) {
-            log.error("Failed to generate S3 signed URL for key='{}'", storagePath, e);
-            throw new RuntimeException("Failed to generate signed URL: " + e.getMessage(), e);
+            log.error("Failed to open S3 object '{}' at offset {}", storagePath, offset, e);
+            throw new IOException("Failed to read file from S3: " + e.getMessage(), e);
         }
     }
-}
 
+    @Override
+    public boolean supportsDirectUpload() {
+        return true;
+    }
+
+    @Override
+    public PresignedUpload presignUpload(String storagePath, String contentType, long contentLength,
+                                         String checksumSha256Base64, int expiresInSeconds) {
+        return urlSigner.presignPut(storagePath, contentType, contentLength, checksumSha256Base64, expiresInSeconds);
+    }
+
+    @Override
+    public String createMultipartUpload(String storagePath, String contentType) {
+        S3ObjectLocation location = locate(storagePath);
+        return s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(location.bucket())
+                .key(location.key())
+                .contentType(contentType)
+                .build()).uploadId();
+    }
+
+    @Override
+    public String presignUploadPart(String storagePath, String uploadId, int partNumber, int expiresInSeconds) {
+        return urlSigner.presignUploadPart(storagePath, uploadId, partNumber, expiresInSeconds);
+    }
+
+    @Override
+    public void completeMultipartUpload(String storagePath, String uploadId, List<UploadedPart> parts) {
+        S3ObjectLocation location = locate(storagePath);
+        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                .bucket(location.bucket())
+                .key(location.key())
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder()
+                        .parts(parts.stream()
+                                .map(part -> CompletedPart.builder().partNumber(part.partNumber()).eTag(part.eTag()).build())
+                                .toList())
+                        .build())
+                .build());
+    }
+
+    @Override
+    public void abortMultipartUpload(String storagePath, String uploadId) {
+        S3ObjectLocation location = locate(storagePath);
+        s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(location.bucket())
+                .key(location.key())
+                .uploadId(uploadId)
+                .build());
+    }
+
+    @Override
+    public Optional<StoredObjectMetadata> headObject(String storagePath) {
+        S3ObjectLocation location = locate(storagePath);
+        try {
+            HeadObjectResponse response = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(location.bucket())
+                    .key(location.key())
+                    .checksumMode(ChecksumMode.ENABLED)
+                    .build());
+            return Optional.of(new StoredObjectMetadata(response.contentLength(), response.checksumSHA256(), response.eTag()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (multipartUploader != null) {
+            multipartUploader.close();
+        }
+        urlSigner.close();
+        s3Client.close();
+    }
+
+    // Quiet mode: the response lists only the keys that failed
+    static DeleteObjectsRequest deleteObjectsRequest(String bucketName, List<String> keys) {
+        return DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder()
+                        .objects(keys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList())
+                        .quiet(true)
+                        .build())
+                .build();
+    }
+
+    static Set<String> failedPaths(DeleteObjectsResponse response, String bucket, String defaultBucket) {
+        Set<String> failed = new HashSet<>();
+        for (S3Error error : response.errors()) {
+            log.warn("Failed to delete S3 object '{}' from bucket '{}': {} {}", error.key(), bucket, error.code(), error.message());
+            failed.add(S3ObjectLocation.storagePath(bucket, error.key(), defaultBucket));
+        }
+        return failed;
+    }
+
+    // DeleteObjects is per bucket, so the paths are split by the bucket they address
+    static Map<String, List<String>> keysByBucket(List<String> storagePaths, String defaultBucket) {
+        Map<String, List<String>> keysByBucket = new LinkedHashMap<>();
+        for (String storagePath : storagePaths) {
+            S3ObjectLocation location = S3ObjectLocation.of(storagePath, defaultBucket);
+            keysByBucket.computeIfAbsent(location.bucket(), bucket -> new ArrayList<>()).add(location.key());
+        }
+        return keysByBucket;
+    }
+
+    // prefix and startAfter are storage paths in the same bucket; the listing reports storage paths too
+    static ListObjectsV2Request listObjectsRequest(S3ObjectLocation prefix, String startAfter, int maxKeys) {
+        return ListObjectsV2Request.builder()
+                .bucket(prefix.bucket())
+                .prefix(prefix.key())
+                .startAfter(startAfter != null ? S3ObjectLocation.of(startAfter, prefix.bucket()).key() : null)
+                .maxKeys(maxKeys)
+                .build();
+    }
+
+    static ObjectListing toObjectListing(ListObjectsV2Response response, String bucket, String defaultBucket) {
+        List<ListedObject> objects = response.contents().stream()
+                .map(object -> new ListedObject(S3ObjectLocation.storagePath(bucket, object.key(), defaultBucket),
+                        object.size(), object.lastModified()))
+                .toList();
+        return new ObjectListing(objects, Boolean.TRUE.equals(response.isTruncated()));
+    }
+
+    private S3ObjectLocation locate(String storagePath) {
+        return S3ObjectLocation.of(storagePath, bucketName);
+    }
+
+    static String byteRange(long offset, long length) {
+        return "bytes=" + offset + "-" + (offset + length - 1);
+    }
+}
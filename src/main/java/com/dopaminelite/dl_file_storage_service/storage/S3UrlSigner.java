@@ -0,0 +1,107 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
+
+import java.time.Duration;
+
+/**
+ * SigV4 presigning for the S3 storage provider. Signing is local; no request is sent. Owns the
+ * presigner, which holds its own credentials provider and must be closed with the provider.
+ */
+@Slf4j
+class S3UrlSigner implements AutoCloseable {
+
+    private final S3Presigner s3Presigner;
+    private final String bucketName;
+
+    S3UrlSigner(S3Presigner s3Presigner, String bucketName) {
+        this.s3Presigner = s3Presigner;
+        this.bucketName = bucketName;
+    }
+
+    String presignGet(String storagePath, SignedUrlIntent intent, int expiresInSeconds) {
+        S3ObjectLocation location = S3ObjectLocation.of(storagePath, bucketName);
+        try {
+            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                    .bucket(location.bucket())
+                    .key(location.key())
+                    .build();
+
+            GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                    .signatureDuration(Duration.ofSeconds(expiresInSeconds))
+                    .getObjectRequest(getObjectRequest)
+                    .build();
+
+            PresignedGetObjectRequest presignedRequest = s3Presigner.presignGetObject(presignRequest);
+            String signedUrl = presignedRequest.url().toString();
+
+            log.debug("Generated S3 signed URL for key='{}', intent: {}, expiresInSeconds: {}",
+                    storagePath, intent, expiresInSeconds);
+            return signedUrl;
+        } catch (Exception e) {
+            log.error("Failed to generate S3 signed URL for key='{}'", storagePath, e);
+            throw new RuntimeException("Failed to generate signed URL: " + e.getMessage(), e);
+        }
+    }
+
+    PresignedUpload presignPut(String storagePath, String contentType, long contentLength,
+                               String checksumSha256Base64, int expiresInSeconds) {
+        S3ObjectLocation location = S3ObjectLocation.of(storagePath, bucketName);
+        try {
+            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                    .bucket(location.bucket())
+                    .key(location.key())
+                    .contentType(contentType)
+                    .contentLength(contentLength)
+                    // When set, S3 rejects a body whose SHA-256 differs and stores the checksum for HEAD
+                    .checksumSHA256(checksumSha256Base64)
+                    .build();
+
+            PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                    .signatureDuration(Duration.ofSeconds(expiresInSeconds))
+                    .putObjectRequest(putObjectRequest)
+                    .build());
+
+            log.debug("Generated S3 presigned PUT for key='{}', expiresInSeconds: {}", storagePath, expiresInSeconds);
+            return new PresignedUpload(presigned.url().toString(), presigned.signedHeaders());
+        } catch (Exception e) {
+            log.error("Failed to generate S3 presigned PUT for key='{}'", storagePath, e);
+            throw new RuntimeException("Failed to generate upload URL: " + e.getMessage(), e);
+        }
+    }
+
+    String presignUploadPart(String storagePath, String uploadId, int partNumber, int expiresInSeconds) {
+        S3ObjectLocation location = S3ObjectLocation.of(storagePath, bucketName);
+        try {
+            UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                    .bucket(location.bucket())
+                    .key(location.key())
+                    .uploadId(uploadId)
+                    .partNumber(partNumber)
+                    .build();
+
+            return s3Presigner.presignUploadPart(UploadPartPresignRequest.builder()
+                    .signatureDuration(Duration.ofSeconds(expiresInSeconds))
+                    .uploadPartRequest(uploadPartRequest)
+                    .build()).url().toString();
+        } catch (Exception e) {
+            log.error("Failed to presign part {} of upload '{}' for key='{}'", partNumber, uploadId, storagePath, e);
+            throw new RuntimeException("Failed to generate upload part URL: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        s3Presigner.close();
+    }
+}
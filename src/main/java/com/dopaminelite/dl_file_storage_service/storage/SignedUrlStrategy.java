@@ -0,0 +1,19 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+
+/**
+ * Issues download URLs for stored objects in place of a provider's own presigning, e.g. URLs
+ * signed for a CDN in front of the bucket. Signing must be local; no request is sent.
+ */
+public interface SignedUrlStrategy {
+
+    String sign(String storagePath, SignedUrlIntent intent, int expiresInSeconds);
+
+    /**
+     * Whether this strategy signs URLs for the intent; other intents use the provider's presigning.
+     */
+    default boolean supports(SignedUrlIntent intent) {
+        return true;
+    }
+}
@@ -2,10 +2,120 @@ package com.dopaminelite.dl_file_storage_service.storage;
 
 import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface StorageProvider extends AutoCloseable {
+    /**
+     * Streams {@code contentLength} bytes from {@code content} to the backend without
+     * materializing the whole object on the heap. The caller owns (and closes) the stream.
+     */
+    String store(InputStream content, long contentLength, String storedFileName, String bucketPath) throws IOException;
+
+    default String store(byte[] content, String storedFileName, String bucketPath) throws IOException {
+        return store(new ByteArrayInputStream(content), content.length, storedFileName, bucketPath);
+    }
 
-public interface StorageProvider {
-    String store(byte[] content, String storedFileName, String bucketPath) throws IOException;
     String generateSignedUrl(String storagePath, SignedUrlIntent intent, int expiresInSeconds);
-}
 
+    /**
+     * Removes the object at {@code storagePath}; succeeds when no such object exists.
+     */
+    void delete(String storagePath) throws IOException;
+
+    /**
+     * Deletes several objects in as few storage calls as the provider allows and returns the
+     * paths that could not be deleted.
+     */
+    default Set<String> deleteAll(List<String> storagePaths) {
+        Set<String> failed = new HashSet<>();
+        for (String storagePath : storagePaths) {
+            try {
+                delete(storagePath);
+            } catch (IOException e) {
+                failed.add(storagePath);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Opens the object for reading starting at byte {@code offset}; at least {@code length} bytes
+     * can be read from the returned stream. Content is streamed, never buffered whole.
+     */
+    InputStream openStream(String storagePath, long offset, long length) throws IOException;
+
+    /**
+     * Key under which {@link #store} places {@code storedFileName}; also used to address objects
+     * uploaded directly by clients.
+     */
+    default String resolveStoragePath(String storedFileName, String bucketPath) {
+        return bucketPath + "/" + storedFileName;
+    }
+
+    // Direct-to-storage uploads: the client transfers bytes itself using presigned requests
+
+    /**
+     * Whether the methods below are implemented; callers check this instead of relying on the
+     * {@link UnsupportedOperationException} the defaults throw.
+     */
+    default boolean supportsDirectUpload() {
+        return false;
+    }
+
+    default PresignedUpload presignUpload(String storagePath, String contentType, long contentLength,
+                                          String checksumSha256Base64, int expiresInSeconds) {
+        throw new UnsupportedOperationException("Direct uploads are not supported by " + getClass().getSimpleName());
+    }
+
+    default String createMultipartUpload(String storagePath, String contentType) {
+        throw new UnsupportedOperationException("Direct uploads are not supported by " + getClass().getSimpleName());
+    }
+
+    default String presignUploadPart(String storagePath, String uploadId, int partNumber, int expiresInSeconds) {
+        throw new UnsupportedOperationException("Direct uploads are not supported by " + getClass().getSimpleName());
+    }
+
+    default void completeMultipartUpload(String storagePath, String uploadId, List<UploadedPart> parts) {
+        throw new UnsupportedOperationException("Direct uploads are not supported by " + getClass().getSimpleName());
+    }
+
+    default void abortMultipartUpload(String storagePath, String uploadId) {
+        throw new UnsupportedOperationException("Direct uploads are not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * Metadata of the stored object, or empty if no object exists at {@code storagePath}.
+     */
+    Optional<StoredObjectMetadata> headObject(String storagePath);
+
+    // Whether listObjects is implemented
+    default boolean supportsListing() {
+        return false;
+    }
+
+    /**
+     * Lists up to {@code maxKeys} objects under {@code prefix} in key order, starting after
+     * {@code startAfter} (or at the beginning of the prefix when null).
+     */
+    default ObjectListing listObjects(String prefix, String startAfter, int maxKeys) {
+        throw new UnsupportedOperationException("Object listing is not supported by " + getClass().getSimpleName());
+    }
+
+    // Releases clients and threads; called when the application context shuts down
+    @Override
+    default void close() {
+    }
+
+    /**
+     * This provider as {@code type}, looking through decorators; empty if it is not one.
+     */
+    default <T extends StorageProvider> Optional<T> unwrap(Class<T> type) {
+        return type.isInstance(this) ? Optional.of(type.cast(this)) : Optional.empty();
+    }
+}
@@ -0,0 +1,8 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+/**
+ * Object metadata as reported by the backend. {@code checksumSha256} is base64 and only present
+ * when the backend stored a full-object SHA-256 checksum.
+ */
+public record StoredObjectMetadata(long contentLength, String checksumSha256, String eTag) {
+}
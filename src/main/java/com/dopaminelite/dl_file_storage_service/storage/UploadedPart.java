@@ -0,0 +1,4 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+public record UploadedPart(int partNumber, String eTag) {
+}
@@ -0,0 +1,25 @@
+-- Idempotent schema adjustments that Hibernate's ddl-auto=update cannot express.
+-- Runs after Hibernate (spring.jpa.defer-datasource-initialization=true); statements are
+-- separated by '^;' so that PL/pgSQL blocks can contain ordinary semicolons.
+-- Only cheap statements belong here: it runs on every start. Secondary indexes are built with
+-- CREATE INDEX CONCURRENTLY by ConcurrentIndexMigrator once the application is ready.
+
+-- Deduplicated files share the storage path of their stored object, so drop the single-column
+-- unique constraint that earlier versions of StoredFile created on storage_path.
+DO $$
+DECLARE
+    constraint_row record;
+BEGIN
+    FOR constraint_row IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = ANY (con.conkey)
+        WHERE con.conrelid = 'dopaminelite_stored_files'::regclass
+          AND con.contype = 'u'
+          AND array_length(con.conkey, 1) = 1
+          AND att.attname = 'storage_path'
+    LOOP
+        EXECUTE format('ALTER TABLE dopaminelite_stored_files DROP CONSTRAINT %I', constraint_row.conname);
+    END LOOP;
+END $$^;
+
@@ -0,0 +1,49 @@
+package com.dopaminelite.dl_file_storage_service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Base class of the integration tests: the full application against a Testcontainers PostgreSQL,
+ * with object content kept in memory and MockMvc for the controllers. Tables and storage are
+ * emptied after every test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import({TestcontainersConfiguration.class, AbstractIntegrationTest.InMemoryStorageConfig.class})
+public abstract class AbstractIntegrationTest {
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected InMemoryStorageProvider storage;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("""
+                truncate table dopaminelite_stored_files, dopaminelite_stored_objects, dopaminelite_pending_uploads,
+                    dopaminelite_file_change_events, dopaminelite_usage_counters, dopaminelite_reconciliation_checkpoints
+                """);
+        storage.clear();
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    static class InMemoryStorageConfig {
+
+        @Bean
+        @Primary
+        InMemoryStorageProvider inMemoryStorageProvider() {
+            return new InMemoryStorageProvider();
+        }
+    }
+}
@@ -1,14 +1,10 @@
 package com.dopaminelite.dl_file_storage_service;
 
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
-@Disabled("Disabled until a test PostgreSQL instance is available or replaced with testcontainers")
-class DlFileStorageServiceApplicationTests {
+class DlFileStorageServiceApplicationTests extends AbstractIntegrationTest {
 
-//	@Test
+	@Test
 	void contextLoads() {
 	}
 
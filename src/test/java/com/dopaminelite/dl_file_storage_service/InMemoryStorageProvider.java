@@ -0,0 +1,146 @@
+package com.dopaminelite.dl_file_storage_service;
+
+import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+import com.dopaminelite.dl_file_storage_service.storage.ListedObject;
+import com.dopaminelite.dl_file_storage_service.storage.ObjectListing;
+import com.dopaminelite.dl_file_storage_service.storage.PresignedUpload;
+import com.dopaminelite.dl_file_storage_service.storage.StorageProvider;
+import com.dopaminelite.dl_file_storage_service.storage.StoredObjectMetadata;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Storage for integration tests: keeps object content in memory, ordered by key like an object
+ * store listing.
+ */
+public class InMemoryStorageProvider implements StorageProvider {
+
+    private record StoredContent(byte[] bytes, Instant lastModified) {
+    }
+
+    private final ConcurrentSkipListMap<String, StoredContent> objects = new ConcurrentSkipListMap<>();
+    private final Map<String, String> multipartUploads = new ConcurrentHashMap<>();
+
+    @Override
+    public String store(InputStream content, long contentLength, String storedFileName, String bucketPath) throws IOException {
+        String storagePath = resolveStoragePath(storedFileName, bucketPath);
+        put(storagePath, content.readAllBytes());
+        return storagePath;
+    }
+
+    @Override
+    public String generateSignedUrl(String storagePath, SignedUrlIntent intent, int expiresInSeconds) {
+        return "memory://" + storagePath + "?intent=" + intent + "&expires=" + expiresInSeconds;
+    }
+
+    @Override
+    public void delete(String storagePath) {
+        objects.remove(storagePath);
+    }
+
+    @Override
+    public InputStream openStream(String storagePath, long offset, long length) throws IOException {
+        StoredContent content = objects.get(storagePath);
+        if (content == null) {
+            throw new FileNotFoundException(storagePath);
+        }
+        int from = (int) Math.min(offset, content.bytes().length);
+        int to = (int) Math.min(content.bytes().length, from + length);
+        return new ByteArrayInputStream(Arrays.copyOfRange(content.bytes(), from, to));
+    }
+
+    @Override
+    public Optional<StoredObjectMetadata> headObject(String storagePath) {
+        StoredContent content = objects.get(storagePath);
+        return content == null
+                ? Optional.empty()
+                : Optional.of(new StoredObjectMetadata(content.bytes().length, null, null));
+    }
+
+    @Override
+    public boolean supportsDirectUpload() {
+        return true;
+    }
+
+    @Override
+    public PresignedUpload presignUpload(String storagePath, String contentType, long contentLength,
+                                         String checksumSha256Base64, int expiresInSeconds) {
+        return new PresignedUpload("memory://" + storagePath + "?upload", Map.of());
+    }
+
+    @Override
+    public String createMultipartUpload(String storagePath, String contentType) {
+        String uploadId = UUID.randomUUID().toString();
+        multipartUploads.put(uploadId, storagePath);
+        return uploadId;
+    }
+
+    @Override
+    public void abortMultipartUpload(String storagePath, String uploadId) {
+        if (!storagePath.equals(multipartUploads.remove(uploadId))) {
+            throw new IllegalStateException("No such multipart upload: " + uploadId);
+        }
+    }
+
+    @Override
+    public boolean supportsListing() {
+        return true;
+    }
+
+    @Override
+    public ObjectListing listObjects(String prefix, String startAfter, int maxKeys) {
+        NavigableMap<String, StoredContent> tail = startAfter != null && startAfter.compareTo(prefix) >= 0
+                ? objects.tailMap(startAfter, false)
+                : objects.tailMap(prefix, true);
+        List<ListedObject> page = new ArrayList<>();
+        for (Map.Entry<String, StoredContent> entry : tail.entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            if (page.size() == maxKeys) {
+                return new ObjectListing(page, true);
+            }
+            page.add(new ListedObject(entry.getKey(), entry.getValue().bytes().length, entry.getValue().lastModified()));
+        }
+        return new ObjectListing(page, false);
+    }
+
+    public void put(String storagePath, byte[] bytes) {
+        put(storagePath, bytes, Instant.now());
+    }
+
+    public void put(String storagePath, byte[] bytes, Instant lastModified) {
+        objects.put(storagePath, new StoredContent(bytes, lastModified));
+    }
+
+    public boolean contains(String storagePath) {
+        return objects.containsKey(storagePath);
+    }
+
+    public byte[] content(String storagePath) {
+        StoredContent content = objects.get(storagePath);
+        return content == null ? null : content.bytes();
+    }
+
+    public int multipartUploadCount() {
+        return multipartUploads.size();
+    }
+
+    public void clear() {
+        objects.clear();
+        multipartUploads.clear();
+    }
+}
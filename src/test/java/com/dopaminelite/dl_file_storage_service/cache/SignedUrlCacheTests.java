@@ -0,0 +1,56 @@
+package com.dopaminelite.dl_file_storage_service.cache;
+
+import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignedUrlCacheTests {
+
+    private final List<Integer> signedLifetimes = new ArrayList<>();
+
+    private final SignedUrlCache cache = new SignedUrlCache(true, 100, 0.5, 60);
+
+    private String sign(int expiresInSeconds) {
+        signedLifetimes.add(expiresInSeconds);
+        return "https://signed/" + signedLifetimes.size();
+    }
+
+    @Test
+    void roundsLifetimeDownToBucket() {
+        SignedUrlCache.SignedUrl signed = cache.get("a/b", SignedUrlIntent.VIEW, 119, this::sign);
+
+        assertThat(signedLifetimes).containsExactly(60);
+        assertThat(signed.expiresAt()).isBefore(OffsetDateTime.now().plusSeconds(119));
+    }
+
+    @Test
+    void keepsLifetimesShorterThanOneBucket() {
+        cache.get("a/b", SignedUrlIntent.VIEW, 30, this::sign);
+
+        assertThat(signedLifetimes).containsExactly(30);
+    }
+
+    @Test
+    void reusesUrlWithinSameBucket() {
+        SignedUrlCache.SignedUrl first = cache.get("a/b", SignedUrlIntent.VIEW, 900, this::sign);
+        SignedUrlCache.SignedUrl second = cache.get("a/b", SignedUrlIntent.VIEW, 930, this::sign);
+        SignedUrlCache.SignedUrl download = cache.get("a/b", SignedUrlIntent.DOWNLOAD, 900, this::sign);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(download.url()).isNotEqualTo(first.url());
+        assertThat(signedLifetimes).containsExactly(900, 900);
+    }
+
+    @Test
+    void invalidateDropsEveryIntent() {
+        SignedUrlCache.SignedUrl first = cache.get("a/b", SignedUrlIntent.VIEW, 900, this::sign);
+        cache.invalidate("a/b");
+
+        assertThat(cache.get("a/b", SignedUrlIntent.VIEW, 900, this::sign).url()).isNotEqualTo(first.url());
+    }
+}
@@ -0,0 +1,116 @@
+package com.dopaminelite.dl_file_storage_service.controller;
+
+import com.dopaminelite.dl_file_storage_service.AbstractIntegrationTest;
+import com.dopaminelite.dl_file_storage_service.constant.FileChangeType;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.entity.FileChangeEvent;
+import com.dopaminelite.dl_file_storage_service.repository.FileChangeEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FileChangeFeedTests extends AbstractIntegrationTest {
+
+    private static final String URL = "/api/v1/files/changes";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FileChangeEventRepository repository;
+
+    // DOCUMENT, OTHER, DOCUMENT, OTHER, DOCUMENT
+    private List<Long> ids;
+
+    @BeforeEach
+    void recordEvents() {
+        ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            FileContextType contextType = i % 2 == 0 ? FileContextType.DOCUMENT : FileContextType.OTHER;
+            ids.add(repository.save(event(contextType, Instant.now().minus(1, ChronoUnit.MINUTES))).getId());
+        }
+    }
+
+    @Test
+    void pagesThroughEventsWithCursor() throws Exception {
+        mockMvc.perform(get(URL).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].eventId").value(contains(ids.get(0).intValue(), ids.get(1).intValue())))
+                .andExpect(jsonPath("$.nextCursor").value(ids.get(1).toString()))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        mockMvc.perform(get(URL).param("after", ids.get(1).toString()).param("limit", "2"))
+                .andExpect(jsonPath("$.items[*].eventId").value(contains(ids.get(2).intValue(), ids.get(3).intValue())))
+                .andExpect(jsonPath("$.nextCursor").value(ids.get(3).toString()))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        mockMvc.perform(get(URL).param("after", ids.get(3).toString()).param("limit", "2"))
+                .andExpect(jsonPath("$.items[*].eventId").value(contains(ids.get(4).intValue())))
+                .andExpect(jsonPath("$.nextCursor").value(ids.get(4).toString()))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void keepsCursorWhenNoNewEvents() throws Exception {
+        mockMvc.perform(get(URL).param("after", ids.get(4).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").value(empty()))
+                .andExpect(jsonPath("$.nextCursor").value(ids.get(4).toString()))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void filtersByContextTypeAcrossPages() throws Exception {
+        mockMvc.perform(get(URL).param("contextType", "DOCUMENT").param("limit", "2"))
+                .andExpect(jsonPath("$.items[*].eventId").value(contains(ids.get(0).intValue(), ids.get(2).intValue())))
+                .andExpect(jsonPath("$.nextCursor").value(ids.get(2).toString()))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        mockMvc.perform(get(URL).param("contextType", "DOCUMENT").param("after", ids.get(2).toString()).param("limit", "2"))
+                .andExpect(jsonPath("$.items[*].eventId").value(contains(ids.get(4).intValue())))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void holdsBackEventsNewerThanVisibilityCutoff() throws Exception {
+        // Stands in for an event whose transaction may not have committed yet
+        long pending = repository.save(event(FileContextType.DOCUMENT, Instant.now().plus(1, ChronoUnit.MINUTES))).getId();
+
+        mockMvc.perform(get(URL).param("after", ids.get(4).toString()))
+                .andExpect(jsonPath("$.items").value(empty()))
+                .andExpect(jsonPath("$.nextCursor").value(ids.get(4).toString()));
+
+        jdbcTemplate.update("update dopaminelite_file_change_events set occurred_at = ? where id = ?",
+                Timestamp.from(Instant.now().minus(1, ChronoUnit.MINUTES)), pending);
+
+        mockMvc.perform(get(URL).param("after", ids.get(4).toString()))
+                .andExpect(jsonPath("$.items[*].eventId").value(contains((int) pending)));
+    }
+
+    private static FileChangeEvent event(FileContextType contextType, Instant occurredAt) {
+        return FileChangeEvent.builder()
+                .changeType(FileChangeType.FILE_CREATED)
+                .fileId(UUID.randomUUID())
+                .contextType(contextType)
+                .createdByUserId(UUID.randomUUID())
+                .originalFileName("notes.txt")
+                .mimeType("text/plain")
+                .sizeBytes(1)
+                .occurredAt(occurredAt)
+                .build();
+    }
+}
@@ -0,0 +1,124 @@
+package com.dopaminelite.dl_file_storage_service.controller;
+
+import com.dopaminelite.dl_file_storage_service.AbstractIntegrationTest;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.dto.StoredFileDto;
+import com.dopaminelite.dl_file_storage_service.service.FileStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FileContentDownloadTests extends AbstractIntegrationTest {
+
+    private static final String CONTENT = "0123456789";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    private StoredFileDto file;
+    private String eTag;
+
+    @BeforeEach
+    void upload() {
+        MockMultipartFile multipartFile = new MockMultipartFile("file", "digits.txt", "text/plain",
+                CONTENT.getBytes(StandardCharsets.UTF_8));
+        file = fileStorageService.uploadFile(multipartFile, UUID.randomUUID(), FileContextType.DOCUMENT, null, false).getFile();
+        eTag = "\"" + file.getSha256() + "\"";
+    }
+
+    @Test
+    void servesWholeContent() throws Exception {
+        mockMvc.perform(get(contentUrl()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void servesSingleRange() throws Exception {
+        mockMvc.perform(get(contentUrl()).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void servesSuffixRange() throws Exception {
+        mockMvc.perform(get(contentUrl()).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().string("789"));
+    }
+
+    @Test
+    void clampsRangeEndToContentLength() throws Exception {
+        mockMvc.perform(get(contentUrl()).header(HttpHeaders.RANGE, "bytes=8-100"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 8-9/10"))
+                .andExpect(content().string("89"));
+    }
+
+    @Test
+    void rejectsUnsatisfiableRange() throws Exception {
+        mockMvc.perform(get(contentUrl()).header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void servesMultipleRangesInFull() throws Exception {
+        mockMvc.perform(get(contentUrl()).header(HttpHeaders.RANGE, "bytes=0-1,4-5"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void answersNotModifiedForMatchingETag() throws Exception {
+        mockMvc.perform(get(contentUrl()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get(contentUrl()).header(HttpHeaders.IF_NONE_MATCH, "W/" + eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void servesContentForStaleETag() throws Exception {
+        mockMvc.perform(get(contentUrl()).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void honorsRangeOnlyWhenIfRangeMatches() throws Exception {
+        mockMvc.perform(get(contentUrl()).header(HttpHeaders.RANGE, "bytes=0-3").header(HttpHeaders.IF_RANGE, eTag))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("0123"));
+
+        mockMvc.perform(get(contentUrl()).header(HttpHeaders.RANGE, "bytes=0-3").header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    private String contentUrl() {
+        return "/api/v1/files/" + file.getId() + "/content";
+    }
+}
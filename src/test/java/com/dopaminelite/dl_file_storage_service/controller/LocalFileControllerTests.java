@@ -0,0 +1,96 @@
+package com.dopaminelite.dl_file_storage_service.controller;
+
+import com.dopaminelite.dl_file_storage_service.constant.SignedUrlIntent;
+import com.dopaminelite.dl_file_storage_service.storage.LocalFileSystemStorageProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Requests the HMAC-signed URLs of a {@link LocalFileSystemStorageProvider} on a temporary
+ * directory; the integration test context runs the in-memory provider instead.
+ */
+class LocalFileControllerTests {
+
+    private static final String CONTENT = "0123456789";
+
+    @TempDir
+    Path rootDir;
+
+    private LocalFileSystemStorageProvider provider;
+    private MockMvc mockMvc;
+    private String storagePath;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        provider = new LocalFileSystemStorageProvider(rootDir, "http://localhost", "test-secret");
+        mockMvc = MockMvcBuilders.standaloneSetup(new LocalFileController(provider)).build();
+        storagePath = provider.store(CONTENT.getBytes(StandardCharsets.UTF_8), "report.txt", "document/ab");
+    }
+
+    @Test
+    void servesValidToken() throws Exception {
+        mockMvc.perform(get(URI.create(provider.generateSignedUrl(storagePath, SignedUrlIntent.DOWNLOAD, 60))))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, startsWith("attachment")))
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void rejectsTamperedSignature() throws Exception {
+        String url = provider.generateSignedUrl(storagePath, SignedUrlIntent.DOWNLOAD, 60);
+        int signatureStart = url.indexOf("signature=") + "signature=".length();
+        char first = url.charAt(signatureStart);
+        String tampered = url.substring(0, signatureStart) + (first == 'A' ? 'B' : 'A') + url.substring(signatureStart + 1);
+
+        mockMvc.perform(get(URI.create(tampered)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void rejectsTamperedKey() throws Exception {
+        String otherPath = provider.store("secret".getBytes(StandardCharsets.UTF_8), "other.txt", "document/ab");
+        String url = provider.generateSignedUrl(storagePath, SignedUrlIntent.DOWNLOAD, 60);
+
+        mockMvc.perform(get(URI.create(url.replace(encode(storagePath), encode(otherPath)))))
+                .andExpect(status().isForbidden());
+        // Nor does the signature carry over to another intent
+        mockMvc.perform(get(URI.create(url.replace("intent=DOWNLOAD", "intent=VIEW"))))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void rejectsExpiredToken() throws Exception {
+        String url = provider.generateSignedUrl(storagePath, SignedUrlIntent.DOWNLOAD, -1);
+
+        mockMvc.perform(get(URI.create(url)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void rejectsPathTraversalKeyEvenWhenSigned() throws Exception {
+        for (String key : new String[]{"../report.txt", "document/../../etc/passwd", "document/./ab/report.txt", "/document/ab/report.txt"}) {
+            mockMvc.perform(get(URI.create(provider.generateSignedUrl(key, SignedUrlIntent.VIEW, 60))))
+                    .andExpect(status().isForbidden());
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
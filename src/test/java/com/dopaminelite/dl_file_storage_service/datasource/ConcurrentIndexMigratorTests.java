@@ -0,0 +1,125 @@
+package com.dopaminelite.dl_file_storage_service.datasource;
+
+import com.dopaminelite.dl_file_storage_service.AbstractIntegrationTest;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.entity.StoredFile;
+import com.dopaminelite.dl_file_storage_service.repository.StoredFileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The migrator is disabled in the test profile, so each test starts from a table without the
+ * managed indexes and runs it directly.
+ */
+class ConcurrentIndexMigratorTests extends AbstractIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private StoredFileRepository repository;
+
+    private ConcurrentIndexMigrator migrator;
+
+    @BeforeEach
+    void dropManagedIndexes() {
+        for (ConcurrentIndexMigrator.IndexDefinition index : ConcurrentIndexMigrator.INDEXES) {
+            jdbcTemplate.execute("drop index if exists " + index.name());
+        }
+        jdbcTemplate.execute("create index if not exists idx_context_type_ref on dopaminelite_stored_files (context_type, context_ref_id)");
+        jdbcTemplate.execute("create index if not exists idx_created_by on dopaminelite_stored_files (created_by_user_id)");
+        migrator = new ConcurrentIndexMigrator(dataSource);
+    }
+
+    @Test
+    void createsIndexesAndThenDropsObsoleteOnes() throws Exception {
+        assertThat(migrator.migrate()).isTrue();
+
+        for (ConcurrentIndexMigrator.IndexDefinition index : ConcurrentIndexMigrator.INDEXES) {
+            assertThat(validity(index.name())).as(index.name()).isTrue();
+        }
+        assertThat(indexDefinition("idx_stored_files_active_ref_created"))
+                .contains("(context_ref_id, created_at, id)")
+                .contains("is_deleted")
+                .contains("context_ref_id IS NOT NULL");
+        for (String obsolete : ConcurrentIndexMigrator.OBSOLETE_INDEXES) {
+            assertThat(validity(obsolete)).as(obsolete).isNull();
+        }
+
+        // A second run finds nothing to do
+        assertThat(migrator.migrate()).isTrue();
+    }
+
+    @Test
+    void rebuildsIndexLeftInvalidByFailedConcurrentBuild() throws Exception {
+        saveRow("application/pdf");
+        saveRow("application/pdf");
+        // A failed CREATE INDEX CONCURRENTLY leaves the index behind, marked invalid
+        assertThatThrownBy(() -> jdbcTemplate.execute(
+                "create unique index concurrently idx_stored_files_active_created on dopaminelite_stored_files (mime_type)"))
+                .isInstanceOf(RuntimeException.class);
+        assertThat(validity("idx_stored_files_active_created")).isFalse();
+
+        assertThat(migrator.migrate()).isTrue();
+
+        assertThat(validity("idx_stored_files_active_created")).isTrue();
+        assertThat(indexDefinition("idx_stored_files_active_created"))
+                .contains("(created_at, id)")
+                .doesNotContain("UNIQUE");
+        for (String obsolete : ConcurrentIndexMigrator.OBSOLETE_INDEXES) {
+            assertThat(validity(obsolete)).as(obsolete).isNull();
+        }
+    }
+
+    @Test
+    void leavesMigrationToInstanceHoldingLock() throws Exception {
+        try (Connection other = dataSource.getConnection();
+             Statement statement = other.createStatement()) {
+            other.setAutoCommit(true);
+            try (ResultSet ignored = statement.executeQuery(
+                    "select pg_advisory_lock(" + ConcurrentIndexMigrator.ADVISORY_LOCK_KEY + ")")) {
+                assertThat(migrator.migrate()).isFalse();
+            } finally {
+                statement.execute("select pg_advisory_unlock(" + ConcurrentIndexMigrator.ADVISORY_LOCK_KEY + ")");
+            }
+        }
+
+        assertThat(validity("idx_stored_files_purge")).isNull();
+        assertThat(validity("idx_created_by")).isTrue();
+    }
+
+    // Null if the index does not exist
+    private Boolean validity(String indexName) {
+        List<Boolean> valid = jdbcTemplate.queryForList(
+                "select indisvalid from pg_index where indexrelid = to_regclass(?)", Boolean.class, indexName);
+        return valid.isEmpty() ? null : valid.get(0);
+    }
+
+    private String indexDefinition(String indexName) {
+        return jdbcTemplate.queryForObject("select pg_get_indexdef(to_regclass(?))", String.class, indexName);
+    }
+
+    private void saveRow(String mimeType) {
+        repository.save(StoredFile.builder()
+                .originalFileName("file.bin")
+                .storedFileName(UUID.randomUUID() + "_file.bin")
+                .mimeType(mimeType)
+                .sizeBytes(1)
+                .bucket("document")
+                .storagePath("document/" + UUID.randomUUID() + "_file.bin")
+                .contextType(FileContextType.DOCUMENT)
+                .createdByUserId(UUID.randomUUID())
+                .build());
+    }
+}
@@ -0,0 +1,60 @@
+package com.dopaminelite.dl_file_storage_service.datasource;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTests {
+
+    private static final Duration WINDOW = Duration.ofSeconds(5);
+
+    @Test
+    void routesRequestToPrimaryWhileClientWriteIsWithinWindow() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(new ReadYourWritesTracker(true, WINDOW));
+
+        assertThat(primaryRequiredDuring(filter, String.valueOf(System.currentTimeMillis() - 1_000))).isTrue();
+        // Scopes are closed with the request
+        assertThat(ReadYourWritesTracker.isPrimaryRequired()).isFalse();
+    }
+
+    @Test
+    void toleratesClockSkewWithinWindow() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(new ReadYourWritesTracker(true, WINDOW));
+
+        assertThat(primaryRequiredDuring(filter, String.valueOf(System.currentTimeMillis() + 1_000))).isTrue();
+        assertThat(primaryRequiredDuring(filter, String.valueOf(System.currentTimeMillis() + 60_000))).isFalse();
+    }
+
+    @Test
+    void leavesRoutingAloneForOldMissingOrMalformedHeader() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(new ReadYourWritesTracker(true, WINDOW));
+
+        assertThat(primaryRequiredDuring(filter, String.valueOf(System.currentTimeMillis() - 60_000))).isFalse();
+        assertThat(primaryRequiredDuring(filter, null)).isFalse();
+        assertThat(primaryRequiredDuring(filter, "yesterday")).isFalse();
+    }
+
+    @Test
+    void ignoresHeaderWhenRoutingIsDisabled() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(new ReadYourWritesTracker(false, WINDOW));
+
+        assertThat(primaryRequiredDuring(filter, String.valueOf(System.currentTimeMillis()))).isFalse();
+    }
+
+    private static boolean primaryRequiredDuring(ReadYourWritesFilter filter, String lastWriteAt) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/files");
+        if (lastWriteAt != null) {
+            request.addHeader(ReadYourWritesFilter.LAST_WRITE_AT_HEADER, lastWriteAt);
+        }
+        AtomicBoolean primaryRequired = new AtomicBoolean();
+        FilterChain chain = (req, res) -> primaryRequired.set(ReadYourWritesTracker.isPrimaryRequired());
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return primaryRequired.get();
+    }
+}
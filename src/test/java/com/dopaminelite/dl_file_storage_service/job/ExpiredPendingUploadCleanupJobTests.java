@@ -0,0 +1,75 @@
+package com.dopaminelite.dl_file_storage_service.job;
+
+import com.dopaminelite.dl_file_storage_service.AbstractIntegrationTest;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.entity.PendingUpload;
+import com.dopaminelite.dl_file_storage_service.repository.PendingUploadRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiredPendingUploadCleanupJobTests extends AbstractIntegrationTest {
+
+    @Autowired
+    private ExpiredPendingUploadCleanupJob cleanupJob;
+
+    @Autowired
+    private PendingUploadRepository pendingUploadRepository;
+
+    @Test
+    void deletesObjectsOfExpiredUploads() {
+        PendingUpload expired = savePending("document/aa/expired.pdf", null, Instant.now().minus(1, ChronoUnit.MINUTES));
+        PendingUpload active = savePending("document/bb/active.pdf", null, Instant.now().plus(10, ChronoUnit.MINUTES));
+        storage.put(expired.getStoragePath(), new byte[]{1, 2, 3});
+        storage.put(active.getStoragePath(), new byte[]{4, 5, 6});
+
+        cleanupJob.cleanUp();
+
+        assertThat(pendingUploadRepository.existsById(expired.getId())).isFalse();
+        assertThat(storage.contains(expired.getStoragePath())).isFalse();
+        assertThat(pendingUploadRepository.existsById(active.getId())).isTrue();
+        assertThat(storage.contains(active.getStoragePath())).isTrue();
+    }
+
+    @Test
+    void abortsMultipartUploadsOfExpiredUploads() {
+        String storagePath = "document/cc/large.bin";
+        String multipartUploadId = storage.createMultipartUpload(storagePath, "application/octet-stream");
+        PendingUpload expired = savePending(storagePath, multipartUploadId, Instant.now().minus(1, ChronoUnit.MINUTES));
+
+        cleanupJob.cleanUp();
+
+        assertThat(pendingUploadRepository.existsById(expired.getId())).isFalse();
+        assertThat(storage.multipartUploadCount()).isZero();
+    }
+
+    @Test
+    void removesRowEvenWhenStorageCleanupFails() {
+        // Unknown multipart upload: the abort fails and the object is left to reconciliation
+        PendingUpload expired = savePending("document/dd/gone.bin", "unknown-upload", Instant.now().minus(1, ChronoUnit.MINUTES));
+
+        cleanupJob.cleanUp();
+
+        assertThat(pendingUploadRepository.existsById(expired.getId())).isFalse();
+    }
+
+    private PendingUpload savePending(String storagePath, String multipartUploadId, Instant expiresAt) {
+        return pendingUploadRepository.save(PendingUpload.builder()
+                .originalFileName("upload.bin")
+                .storedFileName(UUID.randomUUID() + "_upload.bin")
+                .mimeType("application/octet-stream")
+                .sizeBytes(3)
+                .bucket("document")
+                .storagePath(storagePath)
+                .contextType(FileContextType.DOCUMENT)
+                .createdByUserId(UUID.randomUUID())
+                .multipartUploadId(multipartUploadId)
+                .expiresAt(expiresAt)
+                .build());
+    }
+}
@@ -0,0 +1,221 @@
+package com.dopaminelite.dl_file_storage_service.job;
+
+import com.dopaminelite.dl_file_storage_service.AbstractIntegrationTest;
+import com.dopaminelite.dl_file_storage_service.config.StorageProperties;
+import com.dopaminelite.dl_file_storage_service.constant.FileChangeType;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.dto.FileChangeEventDto;
+import com.dopaminelite.dl_file_storage_service.entity.FileChangeEvent;
+import com.dopaminelite.dl_file_storage_service.outbox.FileChangeSink;
+import com.dopaminelite.dl_file_storage_service.repository.FileChangeEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a relay over a recording sink, with the relay switched on and batches of two events.
+ */
+class FileChangeRelayJobTests extends AbstractIntegrationTest {
+
+    @Autowired
+    private FileChangeEventRepository repository;
+
+    @Autowired
+    private StorageProperties storageProperties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final RecordingSink sink = new RecordingSink();
+    private FileChangeRelayJob relayJob;
+    private List<Long> eventIds;
+
+    @BeforeEach
+    void setUp() {
+        StorageProperties.OutboxRelayProperties relayProps = storageProperties.getOutbox().getRelay();
+        relayProps.setEnabled(true);
+        relayProps.setBatchSize(2);
+        relayJob = new FileChangeRelayJob(repository, sink, storageProperties, transactionTemplate, meterRegistry);
+
+        eventIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            eventIds.add(repository.save(event("file-" + i + ".txt")).getId());
+        }
+    }
+
+    @AfterEach
+    void restoreRelayProperties() {
+        StorageProperties.OutboxRelayProperties relayProps = storageProperties.getOutbox().getRelay();
+        relayProps.setEnabled(false);
+        relayProps.setBatchSize(200);
+    }
+
+    @Test
+    void publishesEventsInIdOrderBatchByBatchAndMarksThemPublished() {
+        double publishedBefore = meterRegistry.counter("files.outbox.relay.published").count();
+
+        relayJob.relay();
+
+        assertThat(sink.batches).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(sink.publishedIds()).containsExactlyElementsOf(eventIds);
+        assertThat(unpublishedIds()).isEmpty();
+        assertThat(meterRegistry.counter("files.outbox.relay.published").count() - publishedBefore).isEqualTo(5);
+
+        // Published events are not relayed again
+        relayJob.relay();
+        assertThat(sink.batches).hasSize(3);
+    }
+
+    @Test
+    void releasesClaimWhenSinkFails() {
+        double failuresBefore = meterRegistry.counter("files.outbox.relay.failures").count();
+        sink.failuresLeft = 1;
+
+        relayJob.relay();
+
+        assertThat(sink.batches).isEmpty();
+        assertThat(unpublishedIds()).containsExactlyElementsOf(eventIds);
+        assertThat(claimedIds()).isEmpty();
+        assertThat(meterRegistry.counter("files.outbox.relay.failures").count() - failuresBefore).isEqualTo(1);
+
+        relayJob.relay();
+
+        assertThat(sink.publishedIds()).containsExactlyElementsOf(eventIds);
+        assertThat(unpublishedIds()).isEmpty();
+    }
+
+    @Test
+    void publishesWithNoTransactionOpen() {
+        sink.onPublish = () -> {
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+            // The claim is already committed, so other connections see it
+            assertThat(claimedIds()).isNotEmpty();
+        };
+
+        relayJob.relay();
+
+        assertThat(sink.publishedIds()).containsExactlyElementsOf(eventIds);
+        assertThat(claimedIds()).isEmpty();
+    }
+
+    @Test
+    void skipsEventsClaimedByAnotherRelay() {
+        // Another instance claimed the first batch and is still publishing it
+        claim(eventIds.subList(0, 2), Instant.now().plus(1, ChronoUnit.MINUTES));
+
+        relayJob.relay();
+
+        assertThat(sink.publishedIds()).containsExactlyElementsOf(eventIds.subList(2, 5));
+        assertThat(unpublishedIds()).containsExactlyElementsOf(eventIds.subList(0, 2));
+    }
+
+    @Test
+    void redeliversEventsWhoseClaimExpired() {
+        // Another instance claimed the first batch and died before marking it published
+        claim(eventIds.subList(0, 2), Instant.now().minus(1, ChronoUnit.SECONDS));
+
+        relayJob.relay();
+
+        assertThat(sink.publishedIds()).containsExactlyElementsOf(eventIds);
+        assertThat(unpublishedIds()).isEmpty();
+    }
+
+    @Test
+    void skipsEventsLockedWhileAnotherRelayClaimsThem() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Another instance is inside its claim transaction for the first batch
+        Thread otherRelay = Thread.ofVirtual().start(() -> transactionTemplate.executeWithoutResult(status -> {
+            repository.lockClaimable(Instant.now(), 2);
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+            relayJob.relay();
+
+            assertThat(sink.publishedIds()).containsExactlyElementsOf(eventIds.subList(2, 5));
+        } finally {
+            release.countDown();
+            otherRelay.join();
+        }
+        // It rolled back without claiming, so the next run picks the events up
+        relayJob.relay();
+
+        assertThat(unpublishedIds()).isEmpty();
+    }
+
+    private void claim(List<Long> ids, Instant claimedUntil) {
+        for (Long id : ids) {
+            jdbcTemplate.update("update dopaminelite_file_change_events set claimed_until = ? where id = ?",
+                    Timestamp.from(claimedUntil), id);
+        }
+    }
+
+    private List<Long> claimedIds() {
+        return jdbcTemplate.queryForList(
+                "select id from dopaminelite_file_change_events where claimed_until is not null order by id", Long.class);
+    }
+
+    private List<Long> unpublishedIds() {
+        return jdbcTemplate.queryForList(
+                "select id from dopaminelite_file_change_events where published_at is null order by id", Long.class);
+    }
+
+    private static FileChangeEvent event(String fileName) {
+        return FileChangeEvent.builder()
+                .changeType(FileChangeType.FILE_CREATED)
+                .fileId(UUID.randomUUID())
+                .contextType(FileContextType.DOCUMENT)
+                .createdByUserId(UUID.randomUUID())
+                .originalFileName(fileName)
+                .mimeType("text/plain")
+                .sizeBytes(1)
+                .occurredAt(Instant.now().minus(1, ChronoUnit.MINUTES))
+                .build();
+    }
+
+    private static class RecordingSink implements FileChangeSink {
+
+        private final List<List<FileChangeEventDto>> batches = new ArrayList<>();
+        private int failuresLeft;
+        private Runnable onPublish = () -> { };
+
+        @Override
+        public void publish(List<FileChangeEventDto> events) throws Exception {
+            onPublish.run();
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new Exception("sink unavailable");
+            }
+            batches.add(List.copyOf(events));
+        }
+
+        private List<Long> publishedIds() {
+            return batches.stream().flatMap(List::stream).map(FileChangeEventDto::getEventId).toList();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.dopaminelite.dl_file_storage_service.job;
+
+import com.dopaminelite.dl_file_storage_service.AbstractIntegrationTest;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.dto.StoredFileDto;
+import com.dopaminelite.dl_file_storage_service.repository.StoredFileRepository;
+import com.dopaminelite.dl_file_storage_service.service.FileStorageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SoftDeletedFilePurgeJobTests extends AbstractIntegrationTest {
+
+    @Autowired
+    private SoftDeletedFilePurgeJob purgeJob;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private StoredFileRepository repository;
+
+    @Test
+    void purgesObjectAndRowOfDeletedFile() {
+        StoredFileDto file = upload("only copy");
+        fileStorageService.softDeleteFile(file.getId());
+
+        purgeJob.purge();
+
+        assertThat(repository.existsById(file.getId())).isFalse();
+        assertThat(storage.contains(file.getStoragePath())).isFalse();
+        assertThat(storedObjectCount(file.getStoragePath())).isZero();
+    }
+
+    @Test
+    void keepsObjectSharedWithActiveFile() {
+        StoredFileDto deleted = upload("shared copy");
+        StoredFileDto active = upload("shared copy");
+        assertThat(active.getStoragePath()).isEqualTo(deleted.getStoragePath());
+        fileStorageService.softDeleteFile(deleted.getId());
+
+        purgeJob.purge();
+
+        assertThat(repository.existsById(deleted.getId())).isFalse();
+        assertThat(repository.existsById(active.getId())).isTrue();
+        assertThat(storage.contains(active.getStoragePath())).isTrue();
+        assertThat(storedObjectCount(active.getStoragePath())).isEqualTo(1);
+        assertThat(fileStorageService.getFile(active.getId()).getStoragePath()).isEqualTo(active.getStoragePath());
+    }
+
+    @Test
+    void purgesSharedObjectOnceEveryFileIsDeleted() {
+        StoredFileDto first = upload("both deleted");
+        StoredFileDto second = upload("both deleted");
+        fileStorageService.softDeleteFile(first.getId());
+        fileStorageService.softDeleteFile(second.getId());
+
+        purgeJob.purge();
+
+        assertThat(repository.count()).isZero();
+        assertThat(storage.contains(first.getStoragePath())).isFalse();
+        assertThat(storedObjectCount(first.getStoragePath())).isZero();
+    }
+
+    @Test
+    void leavesActiveFilesAlone() {
+        StoredFileDto file = upload("still active");
+
+        purgeJob.purge();
+
+        assertThat(repository.existsById(file.getId())).isTrue();
+        assertThat(storage.contains(file.getStoragePath())).isTrue();
+    }
+
+    private StoredFileDto upload(String content) {
+        MockMultipartFile file = new MockMultipartFile("file", "notes.txt", "text/plain",
+                content.getBytes(StandardCharsets.UTF_8));
+        return fileStorageService.uploadFile(file, UUID.randomUUID(), FileContextType.DOCUMENT, null, false).getFile();
+    }
+
+    private long storedObjectCount(String storagePath) {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from dopaminelite_stored_objects where storage_path = ?", Long.class, storagePath);
+    }
+}
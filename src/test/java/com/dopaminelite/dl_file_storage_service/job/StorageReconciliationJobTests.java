@@ -0,0 +1,175 @@
+package com.dopaminelite.dl_file_storage_service.job;
+
+import com.dopaminelite.dl_file_storage_service.AbstractIntegrationTest;
+import com.dopaminelite.dl_file_storage_service.config.StorageProperties;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.constant.ReconciliationMode;
+import com.dopaminelite.dl_file_storage_service.entity.PendingUpload;
+import com.dopaminelite.dl_file_storage_service.entity.ReconciliationCheckpoint;
+import com.dopaminelite.dl_file_storage_service.entity.StoredFile;
+import com.dopaminelite.dl_file_storage_service.repository.PendingUploadRepository;
+import com.dopaminelite.dl_file_storage_service.repository.ReconciliationCheckpointRepository;
+import com.dopaminelite.dl_file_storage_service.repository.StoredFileRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Storage and rows laid out so that pages of two keys (storage.reconciliation.page-size in the
+ * test profile) split them; "missing" rows fall between pages and after the last listed key.
+ */
+class StorageReconciliationJobTests extends AbstractIntegrationTest {
+
+    private static final String PREFIX = "document/";
+    private static final Instant OLD = Instant.now().minus(2, ChronoUnit.DAYS);
+
+    @Autowired
+    private StorageReconciliationJob reconciliationJob;
+
+    @Autowired
+    private StoredFileRepository repository;
+
+    @Autowired
+    private PendingUploadRepository pendingUploadRepository;
+
+    @Autowired
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private StorageProperties storageProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void layOut() {
+        storeWithRow("document/00/file-a", false);
+        storeOrphan("document/01/orphan-b");
+        storeWithRow("document/02/file-c", false);
+        storeOrphan("document/03/orphan-d");
+        saveRow("document/04/missing-e", false);
+        storeWithRow("document/05/file-f", false);
+        storeWithPending("document/06/pending-expired", Instant.now().minus(1, ChronoUnit.HOURS));
+        storeWithPending("document/07/pending-active", Instant.now().plus(1, ChronoUnit.HOURS));
+        storeWithRow("document/08/deleted-g", true);
+        saveRow("document/09/missing-h", false);
+    }
+
+    @Test
+    void reportsOrphansAndMissingObjectsAcrossPages() {
+        double orphansBefore = counter("files.reconcile.orphaned_objects", "reported");
+        double missingBefore = counter("files.reconcile.missing_objects", null);
+        double scannedBefore = counter("files.reconcile.scanned", null);
+
+        reconciliationJob.reconcile();
+
+        // 01 and 03 have no row; 06 belongs to an upload that can no longer be completed
+        assertThat(counter("files.reconcile.orphaned_objects", "reported") - orphansBefore).isEqualTo(3);
+        // 04 falls between listing pages, 09 after the last listed key
+        assertThat(counter("files.reconcile.missing_objects", null) - missingBefore).isEqualTo(2);
+        assertThat(counter("files.reconcile.scanned", null) - scannedBefore).isEqualTo(8);
+        assertThat(storage.contains("document/01/orphan-b")).isTrue();
+
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findById(PREFIX).orElseThrow();
+        assertThat(checkpoint.getLastKey()).isNull();
+        assertThat(checkpoint.getLastCompletedAt()).isNotNull();
+        assertThat(checkpoint.getPassStartedAt()).isNull();
+    }
+
+    @Test
+    void deletesOnlyOrphansInDeleteMode() {
+        StorageProperties.ReconciliationProperties props = storageProperties.getReconciliation();
+        props.setMode(ReconciliationMode.DELETE);
+        try {
+            reconciliationJob.reconcile();
+        } finally {
+            props.setMode(ReconciliationMode.REPORT);
+        }
+
+        assertThat(storage.contains("document/01/orphan-b")).isFalse();
+        assertThat(storage.contains("document/03/orphan-d")).isFalse();
+        assertThat(storage.contains("document/06/pending-expired")).isFalse();
+        assertThat(storage.contains("document/00/file-a")).isTrue();
+        assertThat(storage.contains("document/02/file-c")).isTrue();
+        assertThat(storage.contains("document/05/file-f")).isTrue();
+        assertThat(storage.contains("document/07/pending-active")).isTrue();
+        assertThat(storage.contains("document/08/deleted-g")).isTrue();
+    }
+
+    @Test
+    void resumesFromCheckpointWhenPageBudgetRunsOut() {
+        StorageProperties.ReconciliationProperties props = storageProperties.getReconciliation();
+        double scannedBefore = counter("files.reconcile.scanned", null);
+        props.setMaxPagesPerRun(2);
+        try {
+            reconciliationJob.reconcile();
+            assertThat(checkpointRepository.findById(PREFIX).orElseThrow().getLastKey()).isEqualTo("document/03/orphan-d");
+
+            reconciliationJob.reconcile();
+        } finally {
+            props.setMaxPagesPerRun(200);
+        }
+
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findById(PREFIX).orElseThrow();
+        assertThat(checkpoint.getLastKey()).isNull();
+        assertThat(checkpoint.getLastCompletedAt()).isNotNull();
+        // Every object was scanned exactly once across the runs
+        assertThat(counter("files.reconcile.scanned", null) - scannedBefore).isEqualTo(8);
+    }
+
+    private void storeWithRow(String storagePath, boolean deleted) {
+        storage.put(storagePath, new byte[]{1}, OLD);
+        saveRow(storagePath, deleted);
+    }
+
+    private void storeOrphan(String storagePath) {
+        storage.put(storagePath, new byte[]{1}, OLD);
+    }
+
+    private void storeWithPending(String storagePath, Instant expiresAt) {
+        storage.put(storagePath, new byte[]{1}, OLD);
+        pendingUploadRepository.save(PendingUpload.builder()
+                .originalFileName("pending.bin")
+                .storedFileName(UUID.randomUUID() + "_pending.bin")
+                .mimeType("application/octet-stream")
+                .sizeBytes(1)
+                .bucket("document")
+                .storagePath(storagePath)
+                .contextType(FileContextType.DOCUMENT)
+                .createdByUserId(UUID.randomUUID())
+                .expiresAt(expiresAt)
+                .build());
+    }
+
+    private void saveRow(String storagePath, boolean deleted) {
+        repository.save(StoredFile.builder()
+                .originalFileName("file.bin")
+                .storedFileName(UUID.randomUUID() + "_file.bin")
+                .mimeType("application/octet-stream")
+                .sizeBytes(1)
+                .bucket("document")
+                .storagePath(storagePath)
+                .contextType(FileContextType.DOCUMENT)
+                .createdByUserId(UUID.randomUUID())
+                .isDeleted(deleted)
+                .build());
+    }
+
+    private double counter(String name, String action) {
+        Search search = meterRegistry.find(name).tag("prefix", PREFIX);
+        if (action != null) {
+            search = search.tag("action", action);
+        }
+        Counter counter = search.counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,78 @@
+package com.dopaminelite.dl_file_storage_service.service;
+
+import com.dopaminelite.dl_file_storage_service.AbstractIntegrationTest;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.dto.CompleteUploadRequest;
+import com.dopaminelite.dl_file_storage_service.dto.FileUploadResponse;
+import com.dopaminelite.dl_file_storage_service.dto.InitiateUploadRequest;
+import com.dopaminelite.dl_file_storage_service.dto.InitiateUploadResponse;
+import com.dopaminelite.dl_file_storage_service.entity.PendingUpload;
+import com.dopaminelite.dl_file_storage_service.exception.BadRequestException;
+import com.dopaminelite.dl_file_storage_service.repository.PendingUploadRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DirectUploadServiceTests extends AbstractIntegrationTest {
+
+    @Autowired
+    private DirectUploadService directUploadService;
+
+    @Autowired
+    private PendingUploadRepository pendingUploadRepository;
+
+    @Test
+    void completesUploadWhoseObjectMatches() {
+        InitiateUploadResponse initiated = directUploadService.initiateUpload(request("report.pdf", 4));
+        String storagePath = storagePathOf(initiated.getUploadId());
+        storage.put(storagePath, new byte[]{1, 2, 3, 4});
+
+        FileUploadResponse completed = directUploadService.completeUpload(initiated.getUploadId(), new CompleteUploadRequest());
+
+        assertThat(completed.getFile().getStoragePath()).isEqualTo(storagePath);
+        assertThat(pendingUploadRepository.existsById(initiated.getUploadId())).isFalse();
+    }
+
+    @Test
+    void sizeMismatchDiscardsObjectAndPendingUpload() {
+        InitiateUploadResponse initiated = directUploadService.initiateUpload(request("report.pdf", 4));
+        String storagePath = storagePathOf(initiated.getUploadId());
+        storage.put(storagePath, new byte[]{1, 2});
+
+        assertThatThrownBy(() -> directUploadService.completeUpload(initiated.getUploadId(), new CompleteUploadRequest()))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(storage.contains(storagePath)).isFalse();
+        assertThat(pendingUploadRepository.existsById(initiated.getUploadId())).isFalse();
+    }
+
+    @Test
+    void failedPendingInsertAbortsMultipartUpload() {
+        // Over the column length of original_file_name, so the pending row cannot be inserted
+        InitiateUploadRequest request = request("x".repeat(300) + ".bin", 64L * 1024 * 1024);
+
+        assertThatThrownBy(() -> directUploadService.initiateUpload(request)).isInstanceOf(RuntimeException.class);
+
+        assertThat(storage.multipartUploadCount()).isZero();
+        assertThat(pendingUploadRepository.count()).isZero();
+    }
+
+    private String storagePathOf(UUID uploadId) {
+        return pendingUploadRepository.findById(uploadId).map(PendingUpload::getStoragePath).orElseThrow();
+    }
+
+    private static InitiateUploadRequest request(String fileName, long sizeBytes) {
+        return InitiateUploadRequest.builder()
+                .originalFileName(fileName)
+                .mimeType("application/pdf")
+                .sizeBytes(sizeBytes)
+                .createdByUserId(UUID.randomUUID())
+                .contextType(FileContextType.DOCUMENT)
+                .contextRefId("ref-1")
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.dopaminelite.dl_file_storage_service.service;
+
+import com.dopaminelite.dl_file_storage_service.AbstractIntegrationTest;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.dto.StoredFileDto;
+import com.dopaminelite.dl_file_storage_service.repository.StoredObjectRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileStorageServiceDedupTests extends AbstractIntegrationTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private StoredObjectRepository storedObjectRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void identicalUploadsShareOneStoredObject() {
+        StoredFileDto first = upload("same content");
+        StoredFileDto second = upload("same content");
+
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+        assertThat(second.getStoragePath()).isEqualTo(first.getStoragePath());
+        assertThat(refCount(first.getStoragePath())).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from dopaminelite_stored_objects", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void deletesReleaseReferencesWithoutRemovingTheObject() {
+        StoredFileDto first = upload("shared");
+        StoredFileDto second = upload("shared");
+
+        fileStorageService.softDeleteFile(first.getId());
+        assertThat(refCount(first.getStoragePath())).isEqualTo(1);
+
+        fileStorageService.softDeleteFile(second.getId());
+        assertThat(refCount(first.getStoragePath())).isZero();
+        // The object stays until the purge job has removed the stored object row
+        assertThat(storage.contains(first.getStoragePath())).isTrue();
+    }
+
+    @Test
+    void uploadAfterLastReferenceIsDroppedRevivesUnpurgedObject() {
+        StoredFileDto first = upload("revived");
+        fileStorageService.softDeleteFile(first.getId());
+
+        StoredFileDto second = upload("revived");
+
+        assertThat(second.getStoragePath()).isEqualTo(first.getStoragePath());
+        assertThat(refCount(first.getStoragePath())).isEqualTo(1);
+    }
+
+    @Test
+    void uploadFailsWhenPurgeRemovesTheSharedObjectConcurrently() throws Exception {
+        StoredFileDto deleted = upload("purged concurrently");
+        fileStorageService.softDeleteFile(deleted.getId());
+        String storagePath = deleted.getStoragePath();
+
+        // The purge removes the unreferenced row but has not committed when the upload looks it up
+        CountDownLatch purgeDeleted = new CountDownLatch(1);
+        CountDownLatch commitPurge = new CountDownLatch(1);
+        CompletableFuture<Void> purge = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            storedObjectRepository.deleteUnreferenced(Set.of(storagePath));
+            purgeDeleted.countDown();
+            await(commitPurge);
+        }));
+        assertThat(purgeDeleted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<StoredFileDto> racingUpload = CompletableFuture.supplyAsync(() -> upload("purged concurrently"));
+        awaitBlockedOnRowLock();
+        commitPurge.countDown();
+        purge.get(10, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> racingUpload.get(10, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("removed during upload");
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from dopaminelite_stored_files where not is_deleted", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from dopaminelite_stored_objects", Long.class)).isZero();
+
+        // A retry stores the content afresh and registers a new object
+        StoredFileDto retried = upload("purged concurrently");
+        assertThat(refCount(retried.getStoragePath())).isEqualTo(1);
+        assertThat(storage.contains(retried.getStoragePath())).isTrue();
+    }
+
+    private StoredFileDto upload(String content) {
+        MockMultipartFile file = new MockMultipartFile("file", "proof.txt", "text/plain",
+                content.getBytes(StandardCharsets.UTF_8));
+        return fileStorageService.uploadFile(file, USER_ID, FileContextType.DOCUMENT, "ref-1", false).getFile();
+    }
+
+    private long refCount(String storagePath) {
+        return jdbcTemplate.queryForObject(
+                "select ref_count from dopaminelite_stored_objects where storage_path = ?", Long.class, storagePath);
+    }
+
+    // The upload's ref-count increment waits for the purge transaction's row lock
+    private void awaitBlockedOnRowLock() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (jdbcTemplate.queryForObject(
+                "select count(*) from pg_stat_activity where wait_event_type = 'Lock'", Long.class) == 0) {
+            assertThat(System.nanoTime()).as("upload blocked on the stored object row").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.dopaminelite.dl_file_storage_service.service;
+
+import com.dopaminelite.dl_file_storage_service.AbstractIntegrationTest;
+import com.dopaminelite.dl_file_storage_service.config.StorageProperties;
+import com.dopaminelite.dl_file_storage_service.constant.FileContextType;
+import com.dopaminelite.dl_file_storage_service.dto.StoredFileDto;
+import com.dopaminelite.dl_file_storage_service.dto.UsageResponse;
+import com.dopaminelite.dl_file_storage_service.entity.StoredFile;
+import com.dopaminelite.dl_file_storage_service.entity.UsageCounter;
+import com.dopaminelite.dl_file_storage_service.exception.QuotaExceededException;
+import com.dopaminelite.dl_file_storage_service.repository.StoredFileRepository;
+import com.dopaminelite.dl_file_storage_service.repository.UsageCounterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UsageQuotaTests extends AbstractIntegrationTest {
+
+    private static final String CONTEXT_REF = "ref-1";
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private UsageService usageService;
+
+    @Autowired
+    private UsageCounterRepository usageCounterRepository;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    @Autowired
+    private StorageProperties storageProperties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @AfterEach
+    void resetQuota() {
+        storageProperties.getUsage().setQuota(new StorageProperties.QuotaProperties());
+    }
+
+    @Test
+    void upsertCreatesCounterAndAddsDeltas() {
+        String scope = UsageCounter.userScope(userId);
+
+        UsageCounterRepository.Totals created = transactionTemplate.execute(status ->
+                usageCounterRepository.addUserUsage(scope, userId, 1, 100, Instant.now()));
+        UsageCounterRepository.Totals updated = transactionTemplate.execute(status ->
+                usageCounterRepository.addUserUsage(scope, userId, 2, 50, Instant.now()));
+        UsageCounterRepository.Totals decremented = transactionTemplate.execute(status ->
+                usageCounterRepository.addUserUsage(scope, userId, -1, -100, Instant.now()));
+
+        assertThat(created.getFileCount()).isEqualTo(1);
+        assertThat(created.getTotalBytes()).isEqualTo(100);
+        assertThat(updated.getFileCount()).isEqualTo(3);
+        assertThat(updated.getTotalBytes()).isEqualTo(150);
+        assertThat(decremented.getFileCount()).isEqualTo(2);
+        assertThat(decremented.getTotalBytes()).isEqualTo(50);
+        assertThat(usageCounterRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void countsUploadsAndDeletesPerUserAndContext() {
+        upload("abc");
+        StoredFileDto second = upload("abcde");
+        fileStorageService.uploadFiles(List.of(file("x"), file("yy")), userId, FileContextType.DOCUMENT, CONTEXT_REF, false);
+
+        assertUsage(usageService.getUsage(userId, null, null), 4, 11);
+        assertUsage(usageService.getUsage(null, FileContextType.DOCUMENT, CONTEXT_REF), 4, 11);
+
+        fileStorageService.softDeleteFile(second.getId());
+
+        assertUsage(usageService.getUsage(userId, null, null), 3, 6);
+        assertUsage(usageService.getUsage(null, FileContextType.DOCUMENT, CONTEXT_REF), 3, 6);
+    }
+
+    @Test
+    void rejectsUploadOverFileQuotaBeforeStoringContent() {
+        StorageProperties.QuotaProperties quota = enableQuota();
+        quota.setMaxFilesPerUser(2);
+        upload("one");
+        upload("two");
+
+        assertThatThrownBy(() -> upload("three")).isInstanceOf(QuotaExceededException.class);
+        // A multi-file upload is checked as a whole
+        quota.setMaxFilesPerUser(3);
+        assertThatThrownBy(() -> fileStorageService.uploadFiles(List.of(file("four"), file("five")),
+                userId, FileContextType.DOCUMENT, CONTEXT_REF, false))
+                .isInstanceOf(QuotaExceededException.class);
+
+        assertUsage(usageService.getUsage(userId, null, null), 2, 6);
+        assertThat(storedFileRepository.count()).isEqualTo(2);
+        assertThat(storedObjectCount()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsUploadOverContextByteQuota() {
+        enableQuota().setMaxBytesPerContext(10);
+        upload("123456");
+
+        // Another user, same context
+        MockMultipartFile file = file("7890ab");
+        assertThatThrownBy(() -> fileStorageService.uploadFile(file, UUID.randomUUID(), FileContextType.DOCUMENT, CONTEXT_REF, false))
+                .isInstanceOf(QuotaExceededException.class);
+
+        UsageResponse usage = usageService.getUsage(null, FileContextType.DOCUMENT, CONTEXT_REF);
+        assertUsage(usage, 1, 6);
+        assertThat(usage.getMaxBytes()).isEqualTo(10);
+        assertThat(usage.getMaxFiles()).isNull();
+    }
+
+    @Test
+    void counterUpsertRejectsWhatEarlyCheckLetThrough() {
+        StorageProperties.QuotaProperties quota = enableQuota();
+        quota.setMaxFilesPerUser(1);
+        upload("first");
+        StoredFile second = StoredFile.builder()
+                .createdByUserId(userId)
+                .contextType(FileContextType.DOCUMENT)
+                .contextRefId(CONTEXT_REF)
+                .sizeBytes(5)
+                .build();
+
+        // As if a concurrent upload had passed checkQuota before the first one was counted
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> usageService.recordCreated(List.of(second))))
+                .isInstanceOf(QuotaExceededException.class);
+
+        // The increment rolled back with the transaction
+        assertUsage(usageService.getUsage(userId, null, null), 1, 5);
+    }
+
+    @Test
+    void admitsOnlyOneOfConcurrentUploadsAtQuota() throws Exception {
+        enableQuota().setMaxFilesPerUser(1);
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<Boolean> first = executor.submit(() -> uploadAfter(start, "aaaa"));
+            Future<Boolean> second = executor.submit(() -> uploadAfter(start, "bbbb"));
+            start.countDown();
+
+            assertThat(List.of(first.get(), second.get())).containsExactlyInAnyOrder(true, false);
+        }
+
+        assertUsage(usageService.getUsage(userId, null, null), 1, 4);
+        assertThat(storedFileRepository.count()).isEqualTo(1);
+        // The rejected upload's object, if it got stored, was deleted again
+        assertThat(storedObjectCount()).isEqualTo(1);
+    }
+
+    @Test
+    void answersConflictForUploadOverQuota() throws Exception {
+        enableQuota().setMaxFilesPerUser(1);
+        upload("first");
+
+        mockMvc.perform(multipart("/api/v1/files")
+                        .file(new MockMultipartFile("files", "second.txt", "text/plain", "second".getBytes(StandardCharsets.UTF_8)))
+                        .param("createdByUserId", userId.toString())
+                        .param("contextType", FileContextType.DOCUMENT.name()))
+                .andExpect(status().isConflict());
+    }
+
+    private StorageProperties.QuotaProperties enableQuota() {
+        StorageProperties.QuotaProperties quota = storageProperties.getUsage().getQuota();
+        quota.setEnabled(true);
+        return quota;
+    }
+
+    private boolean uploadAfter(CountDownLatch start, String content) throws InterruptedException {
+        start.await();
+        try {
+            upload(content);
+            return true;
+        } catch (QuotaExceededException e) {
+            return false;
+        }
+    }
+
+    private StoredFileDto upload(String content) {
+        return fileStorageService.uploadFile(file(content), userId, FileContextType.DOCUMENT, CONTEXT_REF, false).getFile();
+    }
+
+    private static MockMultipartFile file(String content) {
+        return new MockMultipartFile("file", content + ".txt", "text/plain", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int storedObjectCount() {
+        return storage.listObjects("", null, 1000).objects().size();
+    }
+
+    private static void assertUsage(UsageResponse usage, long fileCount, long totalBytes) {
+        assertThat(usage.getFileCount()).isEqualTo(fileCount);
+        assertThat(usage.getTotalBytes()).isEqualTo(totalBytes);
+    }
+}
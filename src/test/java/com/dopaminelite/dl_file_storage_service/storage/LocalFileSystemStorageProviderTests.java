@@ -0,0 +1,102 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalFileSystemStorageProviderTests {
+
+    @TempDir
+    Path rootDir;
+
+    private LocalFileSystemStorageProvider provider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        provider = new LocalFileSystemStorageProvider(rootDir, "http://localhost", "test-secret");
+    }
+
+    @Test
+    void storesAndReadsBackContent() throws Exception {
+        String storagePath = provider.store("0123456789".getBytes(StandardCharsets.UTF_8), "digits.txt", "document/ab");
+
+        assertThat(storagePath).isEqualTo("document/ab/digits.txt");
+        assertThat(provider.headObject(storagePath)).get().extracting(StoredObjectMetadata::contentLength).isEqualTo(10L);
+        try (InputStream in = provider.openStream(storagePath, 2, 4)) {
+            assertThat(new String(in.readNBytes(4), StandardCharsets.UTF_8)).isEqualTo("2345");
+        }
+    }
+
+    @Test
+    void leavesNothingBehindWhenWriteFailsMidway() throws Exception {
+        InputStream failing = new InputStream() {
+            private int remaining = 4096;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining-- <= 0) {
+                    throw new IOException("connection reset");
+                }
+                return 'x';
+            }
+        };
+
+        assertThatThrownBy(() -> provider.store(failing, 8192, "broken.bin", "document/ab"))
+                .isInstanceOf(IOException.class);
+
+        assertThat(provider.headObject("document/ab/broken.bin")).isEmpty();
+        assertThat(regularFiles()).isEmpty();
+    }
+
+    @Test
+    void leavesNothingBehindWhenStreamEndsEarly() throws Exception {
+        assertThatThrownBy(() -> provider.store(new ByteArrayInputStream(new byte[10]), 20, "short.bin", "document/ab"))
+                .isInstanceOf(EOFException.class);
+
+        assertThat(provider.headObject("document/ab/short.bin")).isEmpty();
+        assertThat(regularFiles()).isEmpty();
+    }
+
+    @Test
+    void keepsPreviousObjectWhenOverwriteFails() throws Exception {
+        String storagePath = provider.store("original".getBytes(StandardCharsets.UTF_8), "report.txt", "document/ab");
+
+        assertThatThrownBy(() -> provider.store(new ByteArrayInputStream(new byte[3]), 100, "report.txt", "document/ab"))
+                .isInstanceOf(EOFException.class);
+
+        try (InputStream in = provider.openStream(storagePath, 0, 8)) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("original");
+        }
+        assertThat(regularFiles()).hasSize(1);
+    }
+
+    @Test
+    void rejectsPathTraversalKeys() {
+        assertThatThrownBy(() -> provider.store(new byte[]{1}, "passwd", "../etc"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> provider.delete("document/../../report.txt"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> provider.headObject("document//report.txt"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Objects and leftover temporary files alike
+    private List<Path> regularFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(rootDir)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+}
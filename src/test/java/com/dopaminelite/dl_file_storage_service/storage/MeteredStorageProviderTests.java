@@ -0,0 +1,42 @@
+package com.dopaminelite.dl_file_storage_service.storage;
+
+import com.dopaminelite.dl_file_storage_service.InMemoryStorageProvider;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MeteredStorageProviderTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MeteredStorageProvider provider =
+            new MeteredStorageProvider(new InMemoryStorageProvider(), meterRegistry, "memory");
+
+    @Test
+    void tagsStoresWithBucketNotHashPrefix() throws Exception {
+        provider.store(new byte[]{1}, "a_file.bin", "document/3f");
+        provider.store(new ByteArrayInputStream(new byte[]{1}), 1, "b_file.bin", "document/a0");
+        provider.store(new byte[]{1}, "c_file.bin", "document");
+
+        assertThat(meterRegistry.find(MeteredStorageProvider.TIMER_NAME).tag("operation", "store").timers())
+                .extracting(timer -> timer.getId().getTag("bucket"))
+                .containsOnly("document");
+        Timer timer = meterRegistry.find(MeteredStorageProvider.TIMER_NAME)
+                .tags("operation", "store", "bucket", "document", "outcome", "success").timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(3);
+    }
+
+    @Test
+    void tagsReadsWithSameBucketAsStores() throws Exception {
+        String storagePath = provider.store(new byte[]{1}, "a_file.bin", "document/3f");
+
+        provider.delete(storagePath);
+
+        assertThat(meterRegistry.find(MeteredStorageProvider.TIMER_NAME)
+                .tags("operation", "delete", "bucket", "document").timer()).isNotNull();
+    }
+}